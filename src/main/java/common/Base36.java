@@ -0,0 +1,62 @@
+package common;
+
+/**
+ * <p>
+ * Convert Reddit ids, i.e. "t3_" followed by "8xwlg2", between their base36 string and a long.<br>
+ * Ids are lowercase digits and letters without leading zeros, so every valid id has exactly one long and back. Up to
+ * {@value #MAX_LENGTH} characters fit in a positive long, Reddit ids today are 7 or fewer.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public final class Base36 {
+
+    public static final int MAX_LENGTH = 12;
+
+    private Base36() {
+    }
+
+    /**
+     * @param id - base36 id without prefix, i.e. "8xwlg2"
+     * @return true if id can be decoded and encoded back to the same string
+     */
+    public static boolean isValid( String id ) {
+        if( id == null || id.isEmpty() || id.length() > MAX_LENGTH || ( id.length() > 1 && id.charAt( 0 ) == '0' ) ){
+            return false;
+        }
+        for( int i = 0; i < id.length(); i++ ) {
+            char c = id.charAt( i );
+            if( !( c >= '0' && c <= '9' ) && !( c >= 'a' && c <= 'z' ) ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param id - base36 id without prefix, i.e. "8xwlg2"
+     * @return value of id
+     * @throws NumberFormatException if id is not valid, see {@link #isValid(String)}
+     */
+    public static long decode( String id ) {
+        if( !isValid( id ) ){
+            throw new NumberFormatException( "not a base36 id: \"" + id + "\"" );
+        }
+        long value = 0;
+        for( int i = 0; i < id.length(); i++ ) {
+            char c = id.charAt( i );
+            value = value * 36 + ( c <= '9' ? c - '0' : c - 'a' + 10 );
+        }
+        return value;
+    }
+
+    /**
+     * @param value - value of an id, cannot be negative
+     * @return lowercase base36 id, i.e. "8xwlg2"
+     */
+    public static String encode( long value ) {
+        if( value < 0 ){
+            throw new NumberFormatException( "id cannot be negative: " + value );
+        }
+        return Long.toString( value, 36 );
+    }
+}
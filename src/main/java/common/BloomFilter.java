@@ -0,0 +1,148 @@
+package common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Set of strings or numbers which answers "maybe present" or "certainly absent" using a fixed number of bits.<br>
+ * False positives happen at about the rate given at creation while no more than expectedInsertions values are added,
+ * false negatives never happen. Values cannot be removed. Safe to use from many threads.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+
+    /**
+     * @param expectedInsertions - number of values to be added before false positive rate grows
+     * @param falsePositiveRate - wanted rate of false positives, between 0 and 1 exclusive
+     */
+    public BloomFilter( long expectedInsertions, double falsePositiveRate ) {
+        if( expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1 ){
+            throw new IllegalArgumentException( "expectedInsertions must be positive and falsePositiveRate between 0 and 1" );
+        }
+        this.expectedInsertions = expectedInsertions;
+        //optimal sizes, m = -n ln(p) / ln(2)^2 and k = m / n ln(2)
+        long m = (long)Math.ceil( -expectedInsertions * Math.log( falsePositiveRate ) / ( Math.log( 2 ) * Math.log( 2 ) ) );
+        int words = (int)Math.min( Integer.MAX_VALUE - 8, ( m + 63 ) / 64 );
+        bits = new AtomicLongArray( words );
+        bitCount = words * 64L;
+        hashCount = Math.max( 1, (int)Math.round( (double)bitCount / expectedInsertions * Math.log( 2 ) ) );
+    }
+
+    /**
+     * @param value - string to add
+     * @return true if any bit changed, false means value was probably added before
+     */
+    public boolean put( String value ) {
+        return putHash( hash( value ) );
+    }
+
+    /**
+     * same as {@link #put(String)} without hashing characters, i.e. for a decoded {@link Base36} id. a long and a string
+     * are different values even if they look the same.
+     *
+     * @param value - number to add
+     * @return true if any bit changed, false means value was probably added before
+     */
+    public boolean put( long value ) {
+        return putHash( mix( value ) );
+    }
+
+    /**
+     * @param value - string to check
+     * @return false if value was certainly never added, true if it probably was
+     */
+    public boolean mightContain( String value ) {
+        return mightContainHash( hash( value ) );
+    }
+
+    /**
+     * @param value - number to check
+     * @return false if value was certainly never added with {@link #put(long)}, true if it probably was
+     */
+    public boolean mightContain( long value ) {
+        return mightContainHash( mix( value ) );
+    }
+
+    private boolean putHash( long hash ) {
+        int h1 = (int)hash;
+        int h2 = (int)( hash >>> 32 );
+        boolean changed = false;
+        for( int i = 1; i <= hashCount; i++ ) {
+            long index = index( h1 + (long)i * h2 );
+            int word = (int)( index >>> 6 );
+            long mask = 1L << index;
+            long old;
+            while( ( ( old = bits.get( word ) ) & mask ) == 0 ){
+                if( bits.compareAndSet( word, old, old | mask ) ){
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean mightContainHash( long hash ) {
+        int h1 = (int)hash;
+        int h2 = (int)( hash >>> 32 );
+        for( int i = 1; i <= hashCount; i++ ) {
+            long index = index( h1 + (long)i * h2 );
+            if( ( bits.get( (int)( index >>> 6 ) ) & ( 1L << index ) ) == 0 ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of values this filter was sized for.
+     */
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return size of filter in bytes.
+     */
+    public long getSizeInBytes() {
+        return bitCount / 8;
+    }
+
+    /**
+     * double hashing, bit i is h1 + i * h2 as in "Less Hashing, Same Performance" by Kirsch and Mitzenmacher.
+     */
+    private long index( long combined ) {
+        return ( combined & Long.MAX_VALUE ) % bitCount;
+    }
+
+    /**
+     * 64 bit FNV-1a of UTF-8 bytes, mixed so both halves are usable.
+     */
+    private static long hash( String value ) {
+        long h = 0xcbf29ce484222325L;
+        for( byte b: value.getBytes( StandardCharsets.UTF_8 ) ) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix( h );
+    }
+
+    /**
+     * finalizer of MurmurHash3, spreads every input bit over the whole result.
+     */
+    private static long mix( long h ) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53fe1a85ec3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
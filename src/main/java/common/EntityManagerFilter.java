@@ -0,0 +1,34 @@
+package common;
+
+import dal.EntityManagerContext;
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+
+/**
+ * share one entity manager between all logic calls of a request, see {@link EntityManagerContext}. it is created on
+ * first use, so requests for static files do not open one, and closed when the request ends even if it failed.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+@WebFilter( filterName = "EntityManagerFilter", urlPatterns = { "/*" } )
+public class EntityManagerFilter implements Filter {
+
+    @Override
+    public void doFilter( ServletRequest request, ServletResponse response, FilterChain chain )
+            throws IOException, ServletException {
+        //a forward or include of the same request is already inside the scope
+        boolean opened = EntityManagerContext.open();
+        try {
+            chain.doFilter( request, response );
+        } finally {
+            if( opened ){
+                EntityManagerContext.close();
+            }
+        }
+    }
+}
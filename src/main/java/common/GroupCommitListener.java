@@ -0,0 +1,59 @@
+package common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import logic.GroupCommitter;
+
+/**
+ * enable {@link GroupCommitter} for the entities listed in context-param "groupCommit.entities" of web.xml, comma
+ * separated, i.e. "Post,Comment". empty or missing means every write commits on its own.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+@WebListener
+public class GroupCommitListener implements ServletContextListener {
+
+    public static final String ENTITIES = "groupCommit.entities";
+    public static final String WINDOW_MILLIS = "groupCommit.windowMillis";
+    public static final String MAX_BATCH = "groupCommit.maxBatch";
+
+    private static final long DEFAULT_WINDOW_MILLIS = 5;
+    private static final int DEFAULT_MAX_BATCH = 100;
+
+    @Override
+    public void contextInitialized( ServletContextEvent sce ) {
+        ServletContext context = sce.getServletContext();
+        String entities = context.getInitParameter( ENTITIES );
+        if( entities == null || entities.trim().isEmpty() ){
+            return;
+        }
+        long window = parse( context.getInitParameter( WINDOW_MILLIS ), DEFAULT_WINDOW_MILLIS );
+        int maxBatch = (int)parse( context.getInitParameter( MAX_BATCH ), DEFAULT_MAX_BATCH );
+        for( String entity: entities.split( "," ) ) {
+            GroupCommitter.enable( entity.trim(), window, TimeUnit.MILLISECONDS, maxBatch );
+            Logger.getLogger( getClass().getName() ).log( Level.INFO, "group commit enabled for {0}, {1}ms window",
+                    new Object[]{ entity.trim(), window } );
+        }
+    }
+
+    @Override
+    public void contextDestroyed( ServletContextEvent sce ) {
+        GroupCommitter.disableAll();
+    }
+
+    private static long parse( String value, long defaultValue ) {
+        if( value == null || value.trim().isEmpty() ){
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong( value.trim() );
+        } catch( NumberFormatException ex ) {
+            throw new ValidationException( "bad group commit setting: " + value, ex );
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Map with primitive long keys, i.e. {@link Base36} ids, which stores keys in one long array instead of a boxed Long
+ * and an entry object per mapping.<br>
+ * Open addressing with linear probing, no removal. Not thread safe.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <V> - value type, null values are not allowed
+ */
+public final class LongHashMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongHashMap() {
+        this( 16 );
+    }
+
+    /**
+     * @param expectedSize - number of mappings to hold before growing
+     */
+    public LongHashMap( int expectedSize ) {
+        int capacity = Integer.highestOneBit( Math.max( 8, (int)( expectedSize / LOAD_FACTOR ) ) * 2 - 1 );
+        keys = new long[ capacity ];
+        values = new Object[ capacity ];
+    }
+
+    /**
+     * @param key - key to find
+     * @return value of key or null if not mapped
+     */
+    @SuppressWarnings( "unchecked" )
+    public V get( long key ) {
+        int slot = slot( keys, values, key );
+        return (V)values[ slot ];
+    }
+
+    public boolean containsKey( long key ) {
+        return get( key ) != null;
+    }
+
+    /**
+     * @param key - key to map
+     * @param value - value of key, cannot be null
+     * @return previous value of key or null if it was not mapped
+     */
+    @SuppressWarnings( "unchecked" )
+    public V put( long key, V value ) {
+        if( value == null ){
+            throw new NullPointerException( "value cannot be null" );
+        }
+        int slot = slot( keys, values, key );
+        V old = (V)values[ slot ];
+        keys[ slot ] = key;
+        values[ slot ] = value;
+        if( old == null && ++size > keys.length * LOAD_FACTOR ){
+            grow();
+        }
+        return old;
+    }
+
+    /**
+     * @param key - key to map
+     * @param value - value of key, cannot be null
+     * @return current value of key, given value is only stored if there is none
+     */
+    public V putIfAbsent( long key, V value ) {
+        V old = get( key );
+        if( old == null ){
+            put( key, value );
+        }
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill( values, null );
+        size = 0;
+    }
+
+    /**
+     * @return slot holding key or the empty slot where it belongs
+     */
+    private static int slot( long[] keys, Object[] values, long key ) {
+        int mask = keys.length - 1;
+        int slot = hash( key ) & mask;
+        while( values[ slot ] != null && keys[ slot ] != key ){
+            slot = ( slot + 1 ) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[ oldKeys.length * 2 ];
+        values = new Object[ oldValues.length * 2 ];
+        for( int i = 0; i < oldKeys.length; i++ ) {
+            if( oldValues[ i ] != null ){
+                int slot = slot( keys, values, oldKeys[ i ] );
+                keys[ slot ] = oldKeys[ i ];
+                values[ slot ] = oldValues[ i ];
+            }
+        }
+    }
+
+    /**
+     * ids are sequential, mix them so neighbours do not fill neighbouring slots.
+     */
+    static int hash( long key ) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int)( h ^ ( h >>> 32 ) );
+    }
+}
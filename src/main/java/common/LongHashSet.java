@@ -0,0 +1,90 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Set of primitive longs, i.e. {@link Base36} ids, kept in one long array instead of a boxed Long and a map entry per
+ * value.<br>
+ * Open addressing with linear probing, no removal. Not thread safe.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public final class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    public LongHashSet() {
+        this( 16 );
+    }
+
+    /**
+     * @param expectedSize - number of values to hold before growing
+     */
+    public LongHashSet( int expectedSize ) {
+        int capacity = Integer.highestOneBit( Math.max( 8, (int)( expectedSize / LOAD_FACTOR ) ) * 2 - 1 );
+        values = new long[ capacity ];
+        used = new boolean[ capacity ];
+    }
+
+    /**
+     * @param value - value to add
+     * @return true if value was not in set
+     */
+    public boolean add( long value ) {
+        int slot = slot( values, used, value );
+        if( used[ slot ] ){
+            return false;
+        }
+        values[ slot ] = value;
+        used[ slot ] = true;
+        if( ++size > values.length * LOAD_FACTOR ){
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains( long value ) {
+        return used[ slot( values, used, value ) ];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill( used, false );
+        size = 0;
+    }
+
+    private static int slot( long[] values, boolean[] used, long value ) {
+        int mask = values.length - 1;
+        int slot = LongHashMap.hash( value ) & mask;
+        while( used[ slot ] && values[ slot ] != value ){
+            slot = ( slot + 1 ) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        values = new long[ oldValues.length * 2 ];
+        used = new boolean[ oldUsed.length * 2 ];
+        for( int i = 0; i < oldValues.length; i++ ) {
+            if( oldUsed[ i ] ){
+                int slot = slot( values, used, oldValues[ i ] );
+                values[ slot ] = oldValues[ i ];
+                used[ slot ] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package common;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import logic.AccountLogic;
+import logic.CommentLogic;
+import logic.LogicFactory;
+
+/**
+ * fill the in memory trigram indexes of comment text and account names at startup, on a background thread so
+ * deployment is not delayed. until it finishes the first search waits for it instead.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+@WebListener
+public class SearchIndexListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized( ServletContextEvent sce ) {
+        Thread loader = new Thread( () -> {
+            try {
+                LogicFactory.<AccountLogic>getFor( "Account" ).loadSearchIndex();
+                LogicFactory.<CommentLogic>getFor( "Comment" ).loadSearchIndex();
+            } catch( RuntimeException ex ) {
+                //not fatal, the indexes are loaded again on first search
+                Logger.getLogger( getClass().getName() ).log( Level.WARNING, "loading search indexes failed", ex );
+            }
+        }, "search-index-loader" );
+        loader.setDaemon( true );
+        loader.start();
+    }
+
+    @Override
+    public void contextDestroyed( ServletContextEvent sce ) {
+    }
+}
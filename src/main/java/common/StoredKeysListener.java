@@ -0,0 +1,39 @@
+package common;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import logic.CommentLogic;
+import logic.LogicFactory;
+import logic.PostLogic;
+
+/**
+ * fill the in memory sets of stored post and comment unique_ids at startup, on a background thread so deployment is
+ * not delayed. until it finishes the first ingestion waits for it instead.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+@WebListener
+public class StoredKeysListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized( ServletContextEvent sce ) {
+        Thread loader = new Thread( () -> {
+            try {
+                LogicFactory.<PostLogic>getFor( "Post" ).loadStoredKeys();
+                LogicFactory.<CommentLogic>getFor( "Comment" ).loadStoredKeys();
+            } catch( RuntimeException ex ) {
+                //not fatal, the sets are loaded again on first use
+                Logger.getLogger( getClass().getName() ).log( Level.WARNING, "loading stored keys failed", ex );
+            }
+        }, "stored-keys-loader" );
+        loader.setDaemon( true );
+        loader.start();
+    }
+
+    @Override
+    public void contextDestroyed( ServletContextEvent sce ) {
+    }
+}
@@ -1,6 +1,7 @@
 package dal;
 
 import entity.Account;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,6 +12,12 @@ import java.util.Map;
  */
 public class AccountDAL extends GenericDAL<Account> {
 
+    /**
+     * trigrams of displayname and username of every account, shared by all instances.
+     */
+    private static final TrigramIndex<Account> NAMES = new TrigramIndex<>( "account", Arrays.asList( "displayname", "username" ),
+            "Account.findContainingIn", Account::getId, a -> TrigramIndex.join( a.getDisplayname(), a.getUsername() ) );
+
     public AccountDAL() {
         super( Account.class );
     }
@@ -64,4 +71,9 @@ public class AccountDAL extends GenericDAL<Account> {
         map.put( "password", pass );
         return findResult( "Account.validateUser", map );
     }
+
+    @Override
+    TrigramIndex<Account> trigramIndex() {
+        return NAMES;
+    }
 }
@@ -0,0 +1,223 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+/**
+ * plain JDBC insert used by {@link GenericDAL#saveAll(java.util.Collection)}. entities use IDENTITY ids, which makes
+ * Hibernate send every insert on its own to learn the new id. sending them as one JDBC batch, rewritten by the MySQL
+ * driver into multi row inserts with rewriteBatchedStatements=true, and reading the generated keys afterwards avoids
+ * that.
+ *
+ * the same statement can skip or update rows whose natural key already exists, using INSERT ... ON DUPLICATE KEY
+ * UPDATE. the natural key column needs a UNIQUE index for that. INSERT IGNORE is not used, it would also turn too long
+ * values, nulls and broken foreign keys into warnings and store the row truncated or defaulted. entities are checked
+ * against their bean validation constraints first, as persist would.
+ *
+ * the driver runs in its default found rows mode, where a duplicate which changes nothing still counts as 1 row, so
+ * skipped rows cannot be told apart by the update counts. {@link Mode#INSERT_IF_ABSENT} looks existing keys up first
+ * instead. useAffectedRows=true is not an option, Hibernate checks row counts of its updates against found rows.
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <T> - entity type
+ */
+final class BatchStatement<T> {
+
+    /**
+     * what to do with a row whose natural key already exists.
+     */
+    enum Mode {
+        /**
+         * fail, same as persist.
+         */
+        INSERT,
+        /**
+         * keep the existing row.
+         */
+        INSERT_IF_ABSENT,
+        /**
+         * overwrite the update columns of existing row.
+         */
+        UPSERT
+    }
+
+    /**
+     * set the parameters of insert statement from one entity, except the natural key which is bound in the type of
+     * its column by {@link KeyColumn}.
+     *
+     * @param <T> - entity type
+     */
+    interface Binder<T> {
+
+        void bind( PreparedStatement statement, T entity ) throws SQLException;
+    }
+
+    private final String table;
+    private final List<String> columns;
+    private final String keyColumn;
+    private final Function<T, String> key;
+    private final List<String> updateColumns;
+    private final Binder<T> binder;
+    private final ObjIntConsumer<T> idSetter;
+
+    /**
+     * @param table - name of table
+     * @param columns - columns set by binder, in order, without the id column
+     * @param keyColumn - natural key column with a UNIQUE index, i.e. unique_id
+     * @param key - value of keyColumn in an entity
+     * @param updateColumns - columns overwritten by {@link Mode#UPSERT}, null values never overwrite existing ones
+     * @param binder - sets every parameter of sql except keyColumn from an entity
+     * @param idSetter - stores generated id in entity
+     */
+    BatchStatement( String table, List<String> columns, String keyColumn, Function<T, String> key,
+            List<String> updateColumns, Binder<T> binder, ObjIntConsumer<T> idSetter ) {
+        this.table = table;
+        this.columns = columns;
+        this.keyColumn = keyColumn;
+        this.key = key;
+        this.updateColumns = updateColumns;
+        this.binder = binder;
+        this.idSetter = idSetter;
+    }
+
+    String sql( Mode mode ) {
+        String values = columns.stream().map( c -> "?" ).collect( Collectors.joining( ", " ) );
+        String sql = "INSERT INTO " + table + " (" + String.join( ", ", columns ) + ") VALUES (" + values + ")";
+        if( mode == Mode.UPSERT ){
+            sql += " ON DUPLICATE KEY UPDATE " + updateColumns.stream()
+                    .map( c -> c + " = COALESCE(VALUES(" + c + "), " + c + ")" )
+                    .collect( Collectors.joining( ", " ) );
+        } else if( mode == Mode.INSERT_IF_ABSENT ){
+            //changes nothing, only guards against a row inserted by another transaction since the lookup
+            sql += " ON DUPLICATE KEY UPDATE " + keyColumn + " = " + keyColumn;
+        }
+        return sql;
+    }
+
+    /**
+     * bean validation provider is only looked up when the first batch is sent.
+     */
+    private static final class Holder {
+
+        private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    }
+
+    /**
+     * @throws ConstraintViolationException if an entity breaks its constraints, i.e. a too long name
+     */
+    private static <T> void validate( List<T> entities ) {
+        Set<ConstraintViolation<T>> violations = new HashSet<>();
+        for( T entity: entities ) {
+            violations.addAll( Holder.VALIDATOR.validate( entity ) );
+        }
+        if( !violations.isEmpty() ){
+            throw new ConstraintViolationException( violations );
+        }
+    }
+
+    /**
+     * insert all entities as one batch and set their ids.
+     *
+     * @param connection - connection of current transaction
+     * @param entities - entities to insert, ids are set in the same order
+     * @param mode - how to treat rows whose natural key exists
+     * @return for {@link Mode#INSERT_IF_ABSENT} number of entities whose key had no row, otherwise number of rows
+     * inserted or changed as reported by the driver, rewritten batches may report less
+     * @throws SQLException if insert fails
+     * @throws ConstraintViolationException if an entity is not valid, nothing is sent then
+     */
+    int execute( Connection connection, List<T> entities, Mode mode ) throws SQLException {
+        validate( entities );
+        KeyColumn natural = KeyColumn.of( connection, table, keyColumn );
+        if( mode == Mode.INSERT_IF_ABSENT ){
+            //existing rows only get their id, the update count cannot tell them apart
+            int[] existing = findIds( connection, natural, entities );
+            List<T> absent = new ArrayList<>( entities.size() );
+            for( int i = 0; i < entities.size(); i++ ) {
+                if( existing[ i ] != 0 ){
+                    idSetter.accept( entities.get( i ), existing[ i ] );
+                } else {
+                    absent.add( entities.get( i ) );
+                }
+            }
+            if( !absent.isEmpty() ){
+                insert( connection, natural, absent, mode );
+            }
+            return absent.size();
+        }
+        return insert( connection, natural, entities, mode );
+    }
+
+    private int insert( Connection connection, KeyColumn natural, List<T> entities, Mode mode ) throws SQLException {
+        int changed = 0;
+        int keyIndex = columns.indexOf( keyColumn ) + 1;
+        try( PreparedStatement statement = connection.prepareStatement( sql( mode ), Statement.RETURN_GENERATED_KEYS ) ) {
+            for( T entity: entities ) {
+                binder.bind( statement, entity );
+                natural.bind( statement, keyIndex, key.apply( entity ) );
+                statement.addBatch();
+            }
+            for( int count: statement.executeBatch() ) {
+                changed += Math.max( 0, count );
+            }
+            if( mode == Mode.INSERT ){
+                try( ResultSet keys = statement.getGeneratedKeys() ) {
+                    for( int i = 0; i < entities.size() && keys.next(); i++ ) {
+                        idSetter.accept( entities.get( i ), keys.getInt( 1 ) );
+                    }
+                }
+                return changed;
+            }
+        }
+        //generated keys do not line up with entities when some rows already existed, read them by natural key
+        int[] ids = findIds( connection, natural, entities );
+        for( int i = 0; i < entities.size(); i++ ) {
+            if( ids[ i ] != 0 ){
+                idSetter.accept( entities.get( i ), ids[ i ] );
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * keys are compared by MySQL with the collation of the key column, so a row whose name differs only in case, which a
+     * case insensitive collation treats as equal, is found the same way the UNIQUE index found it. one lookup of the
+     * index per entity, all in one statement.
+     *
+     * @return id of the row of each entity by position, 0 if there is none
+     */
+    private int[] findIds( Connection connection, KeyColumn natural, List<T> entities ) throws SQLException {
+        String lookup = "(SELECT id FROM " + table + " WHERE " + keyColumn + " = ?)";
+        StringBuilder sql = new StringBuilder();
+        for( int i = 0; i < entities.size(); i++ ) {
+            sql.append( i == 0 ? "SELECT ? AS i, " + lookup + " AS id" : " UNION ALL SELECT ?, " + lookup );
+        }
+        int[] ids = new int[ entities.size() ];
+        try( PreparedStatement statement = connection.prepareStatement( sql.toString() ) ) {
+            for( int i = 0; i < entities.size(); i++ ) {
+                statement.setInt( 2 * i + 1, i );
+                natural.bind( statement, 2 * i + 2, key.apply( entities.get( i ) ) );
+            }
+            try( ResultSet rows = statement.executeQuery() ) {
+                while( rows.next() ) {
+                    ids[ rows.getInt( 1 ) ] = rows.getInt( 2 );
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,92 @@
+package dal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * hit and miss counts of the second level, natural id and query cache since startup or {@link #clear()}. needs
+ * hibernate.generate_statistics in persistence.xml, otherwise every count is 0.
+ *
+ * <pre>
+   Logger.getLogger( getClass().getName() ).info( CacheStatistics.summary() );
+ * </pre>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public final class CacheStatistics {
+
+    private CacheStatistics() {
+    }
+
+    private static Statistics statistics() {
+        return EMFactory.getEMF().unwrap( SessionFactory.class ).getStatistics();
+    }
+
+    /**
+     * @return share of entity lookups answered by the second level cache, 0 to 1
+     */
+    public static double getSecondLevelHitRatio() {
+        Statistics s = statistics();
+        return ratio( s.getSecondLevelCacheHitCount(), s.getSecondLevelCacheMissCount() );
+    }
+
+    /**
+     * @return share of natural id lookups answered by the natural id cache, 0 to 1
+     */
+    public static double getNaturalIdHitRatio() {
+        Statistics s = statistics();
+        return ratio( s.getNaturalIdCacheHitCount(), s.getNaturalIdCacheMissCount() );
+    }
+
+    /**
+     * @return share of cacheable queries answered by the query cache, 0 to 1
+     */
+    public static double getQueryHitRatio() {
+        Statistics s = statistics();
+        return ratio( s.getQueryCacheHitCount(), s.getQueryCacheMissCount() );
+    }
+
+    /**
+     * @param region - name of region in ehcache.xml, i.e. "entity.Subreddit"
+     * @return share of lookups in given region answered by the cache, 0 to 1, 0 for an unknown region
+     */
+    public static double getHitRatio( String region ) {
+        CacheRegionStatistics r;
+        try {
+            r = statistics().getDomainDataRegionStatistics( region );
+        } catch( IllegalArgumentException ex ) {
+            //thrown for a region name hibernate does not know
+            return 0;
+        }
+        if( r == null ){
+            return 0;
+        }
+        return ratio( r.getHitCount(), r.getMissCount() );
+    }
+
+    /**
+     * start counting again from 0.
+     */
+    public static void clear() {
+        statistics().clear();
+    }
+
+    /**
+     * @return one line with hit ratio and counts of every cache
+     */
+    public static String summary() {
+        Statistics s = statistics();
+        return String.format( "second level %.1f%% (%d/%d), natural id %.1f%% (%d/%d), query %.1f%% (%d/%d)",
+                100 * getSecondLevelHitRatio(), s.getSecondLevelCacheHitCount(),
+                s.getSecondLevelCacheHitCount() + s.getSecondLevelCacheMissCount(),
+                100 * getNaturalIdHitRatio(), s.getNaturalIdCacheHitCount(),
+                s.getNaturalIdCacheHitCount() + s.getNaturalIdCacheMissCount(),
+                100 * getQueryHitRatio(), s.getQueryCacheHitCount(), s.getQueryCacheHitCount() + s.getQueryCacheMissCount() );
+    }
+
+    private static double ratio( long hits, long misses ) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double)hits / total;
+    }
+}
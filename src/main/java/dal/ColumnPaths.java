@@ -0,0 +1,69 @@
+package dal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+
+/**
+ * table column name to entity attribute path, read from the hibernate mapping so it always matches the @Column and
+ * @JoinColumn names. a foreign key column maps to the id of the association, i.e. "post_id" to "postId.id", which
+ * hibernate selects from the foreign key itself without joining or loading the associated row. used by
+ * {@link GenericDAL#findColumns(java.util.List, String, int)}.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+final class ColumnPaths {
+
+    /**
+     * entity class to its column paths, built once per entity.
+     */
+    private static final Map<Class<?>, Map<String, String>> PATHS = new ConcurrentHashMap<>();
+
+    private ColumnPaths() {
+    }
+
+    /**
+     * @param emf - factory which maps entityClass
+     * @param entityClass - entity class
+     * @param column - name of a column in table of entityClass, case is ignored
+     * @return attribute path of given column, i.e. "redditAccountId.id"
+     * @throws IllegalArgumentException if entityClass has no column with given name
+     */
+    static String of( EntityManagerFactory emf, Class<?> entityClass, String column ) {
+        String path = PATHS.computeIfAbsent( entityClass, type -> build( emf, type ) ).get( column.toLowerCase() );
+        if( path == null ){
+            throw new IllegalArgumentException( entityClass.getSimpleName() + " has no column " + column );
+        }
+        return path;
+    }
+
+    private static Map<String, String> build( EntityManagerFactory emf, Class<?> entityClass ) {
+        SessionFactoryImplementor factory = emf.unwrap( SessionFactoryImplementor.class );
+        AbstractEntityPersister persister = (AbstractEntityPersister)factory.getMetamodel().entityPersister( entityClass );
+        Map<String, String> paths = new HashMap<>();
+        for( String column: persister.getIdentifierColumnNames() ){
+            paths.put( column.toLowerCase(), persister.getIdentifierPropertyName() );
+        }
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        for( int i = 0; i < names.length; i++ ){
+            String[] columns = persister.getPropertyColumnNames( i );
+            //collections, embedded values and formulas have no single column of their own
+            if( columns.length != 1 || columns[ 0 ] == null || types[ i ].isCollectionType() ){
+                continue;
+            }
+            String path = names[ i ];
+            if( types[ i ].isEntityType() ){
+                String associated = ( (EntityType)types[ i ] ).getAssociatedEntityName( factory );
+                path += "." + factory.getMetamodel().entityPersister( associated ).getIdentifierPropertyName();
+            }
+            paths.putIfAbsent( columns[ 0 ].toLowerCase(), path );
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,105 @@
+package dal;
+
+import entity.Comment;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class CommentDAL extends GenericDAL<Comment> {
+
+    /**
+     * unique_id of every stored comment, shared by all instances.
+     */
+    private static final UniqueIdFilter<Comment> STORED = new UniqueIdFilter<>( "comment", "unique_id", Comment::getUniqueId );
+
+    /**
+     * trigrams of text of every stored comment, shared by all instances.
+     */
+    private static final TrigramIndex<Comment> TEXT = new TrigramIndex<>( "comment", Arrays.asList( "text" ),
+            "Comment.findByTextIn", Comment::getId, c -> TrigramIndex.join( c.getText() ) );
+
+    public CommentDAL() {
+        super( Comment.class );
+    }
+
+    @Override
+    public List<Comment> findAll() {
+        return findResults( "Comment.findAll", null );
+    }
+
+    @Override
+    public Comment findById( int id ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "id", id );
+        return findResult( "Comment.findById", map );
+    }
+
+    public Comment findByUniqueId( String uniqueId ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "uniqueId", uniqueId );
+        return findResult( "Comment.findByUniqueId", map );
+    }
+
+    public List<Comment> findByText( String text ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "text", text );
+        return findResults( "Comment.findByText", map );
+    }
+
+    public List<Comment> findByCreated( Date created ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "created", created );
+        return findResults( "Comment.findByCreated", map );
+    }
+
+    public List<Comment> findByPoints( int points ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "points", points );
+        return findResults( "Comment.findByPoints", map );
+    }
+
+    public List<Comment> findByReplys( int replys ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "replys", replys );
+        return findResults( "Comment.findByReplys", map );
+    }
+
+    public List<Comment> findByIsReply( boolean isReply ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "isReply", isReply );
+        return findResults( "Comment.findByIsReply", map );
+    }
+
+    @Override
+    BatchStatement<Comment> batchStatement() {
+        return new BatchStatement<>( "comment",
+                Arrays.asList( "reddit_account_id", "post_id", "unique_id", "text", "created", "points", "replys", "is_reply" ),
+                "unique_id", Comment::getUniqueId, Arrays.asList( "text", "points", "replys" ),
+                ( statement, c ) -> {
+                    statement.setInt( 1, c.getRedditAccountId().getId() );
+                    statement.setInt( 2, c.getPostId().getId() );
+                    statement.setString( 4, c.getText() );
+                    statement.setTimestamp( 5, new Timestamp( c.getCreated().getTime() ) );
+                    statement.setInt( 6, c.getPoints() );
+                    statement.setInt( 7, c.getReplys() );
+                    statement.setBoolean( 8, c.getIsReply() );
+                }, ( c, id ) -> c.setId( id ) );
+    }
+
+    @Override
+    UniqueIdFilter<Comment> uniqueIdFilter() {
+        return STORED;
+    }
+
+    @Override
+    TrigramIndex<Comment> trigramIndex() {
+        return TEXT;
+    }
+}
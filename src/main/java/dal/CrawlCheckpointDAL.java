@@ -0,0 +1,36 @@
+package dal;
+
+import entity.CrawlCheckpoint;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class CrawlCheckpointDAL extends GenericDAL<CrawlCheckpoint> {
+
+    public CrawlCheckpointDAL() {
+        super( CrawlCheckpoint.class );
+    }
+
+    @Override
+    public List<CrawlCheckpoint> findAll() {
+        return findResults( "CrawlCheckpoint.findAll", null );
+    }
+
+    @Override
+    public CrawlCheckpoint findById( int id ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "id", id );
+        return findResult( "CrawlCheckpoint.findById", map );
+    }
+
+    public CrawlCheckpoint findBySubredditAndSort( String subreddit, String sort ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "subreddit", subreddit );
+        map.put( "sort", sort );
+        return findResult( "CrawlCheckpoint.findBySubredditAndSort", map );
+    }
+}
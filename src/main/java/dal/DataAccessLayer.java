@@ -1,6 +1,9 @@
 package dal;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  *
@@ -42,6 +45,40 @@ public interface DataAccessLayer <E>{
      */
     void save(E entity);
 
+    /**
+     * save all entities in the current transaction using batched inserts. entities are not tracked by the entity
+     * manager afterwards, their generated ids are set.
+     * @param entities - new entities to be saved before commit
+     * @return number of saved entities
+     */
+    int saveAll(Collection<E> entities);
+
+    /**
+     * save entities whose natural key (unique_id or name) is new and update the ones which exist, in batches.
+     * @param entities - entities to be saved or updated before commit
+     * @return number of rows inserted or changed
+     */
+    int upsertAll(Collection<E> entities);
+
+    /**
+     * save entities whose natural key (unique_id or name) is new and skip the ones which exist, in batches.
+     * @param entities - entities to be saved before commit
+     * @return number of rows inserted
+     */
+    int insertIfAbsentAll(Collection<E> entities);
+
+    /**
+     * find which of given natural keys are stored, using an in memory filter so most new keys never reach the DB.
+     * @param keys - natural keys to check, i.e. unique_id
+     * @return keys which exist in table
+     */
+    Set<String> findStoredKeys(Collection<String> keys);
+
+    /**
+     * read all stored natural keys into the in memory filter used by findStoredKeys, i.e. at startup.
+     */
+    void loadStoredKeys();
+
     /**
      * delete this entity
      * @param entity - entity object to be removed
@@ -64,9 +101,75 @@ public interface DataAccessLayer <E>{
      */
     E find(Object entityID);
 
+    /**
+     * get the entity with given key and the associations of given fetch plan in one query.
+     * @param entityID - primary key
+     * @param fetchPlan - name of a named entity graph of the entity, null for none
+     * @return entity object or null of not found
+     */
+    E find(Object entityID, String fetchPlan);
+
     /**
      * get all rows of this table using CriteriaQuery
      * @return list of all rows
      */
     List<E> findAllCQ();
+
+    /**
+     * get one page of rows ordered by column and then id, starting after the row the cursor points to. each page costs
+     * the same no matter how deep it is, unlike OFFSET, if column is indexed together with id.
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @param column - name of a non null entity attribute to order by, i.e. "id" or "created"
+     * @param direction - ascending or descending order
+     * @return page of rows with the cursor of next page
+     */
+    Page<E> findPage(String afterCursor, int limit, String column, Page.Direction direction);
+
+    /**
+     * get one page of rows like {@link #findPage(String, int, String, Page.Direction)}, loading the associations of
+     * given fetch plan in the same query. a whole page and its associations cost one query no matter the limit.
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @param column - name of a non null entity attribute to order by, i.e. "id" or "created"
+     * @param direction - ascending or descending order
+     * @param fetchPlan - name of a named entity graph of the entity without collections, null for none
+     * @return page of rows with the cursor of next page
+     */
+    Page<E> findPage(String afterCursor, int limit, String column, Page.Direction direction, String fetchPlan);
+
+    /**
+     * select only given columns of one page of rows ordered by id, as plain lists instead of managed entities. for
+     * table views which show the columns and nothing else. pages are found by id like
+     * {@link #findPage(String, int, String, Page.Direction)}, so each costs the same no matter how deep it is.
+     * @param columns - table column names, i.e. "id" or "reddit_account_id"
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @return one list per row, values in the same order as columns, with the cursor of next page
+     */
+    Page<List<?>> findColumns(List<String> columns, String afterCursor, int limit);
+
+    /**
+     * read every row of this table one at a time without loading them all, for exports and jobs which walk the whole
+     * table. runs on its own connection and transaction, no transaction needs to be begun. the stream must be closed.
+     * @return stream of all rows ordered by id
+     */
+    Stream<E> streamAll();
+
+    /**
+     * find rows whose indexed text columns contain given text, using an in memory trigram index to check only rows
+     * which may match instead of scanning the table.
+     * @param text - text to find, % and _ are not wildcards
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @return page of matching rows ordered by id
+     * @throws UnsupportedOperationException if the table has no search index
+     */
+    Page<E> findContaining(String text, String afterCursor, int limit);
+
+    /**
+     * fill the search index of {@link #findContaining(String, String, int)} now instead of on first search.
+     * @throws UnsupportedOperationException if the table has no search index
+     */
+    void loadSearchIndex();
 }
@@ -0,0 +1,139 @@
+package dal;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+/**
+ * <p>
+ * One {@link EntityManager} per thread for the length of a unit of work, i.e. an HTTP request.<br>
+ * While a scope is open every DAL on this thread uses the same entity manager, so several logic calls share one
+ * persistence context and one connection instead of creating their own. The entity manager is only created when a DAL
+ * first needs it and is closed by {@link #close()}. Without an open scope each transaction uses a new entity manager,
+ * as before.</p>
+ *
+ * <pre>
+   EntityManagerContext.open();
+   try{
+       ...
+   }finally{
+       EntityManagerContext.close();
+   }
+ * </pre>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public final class EntityManagerContext {
+
+    /**
+     * one holder per open scope, em stays null until first used.
+     */
+    private static final class Scope {
+
+        private EntityManager em;
+    }
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private EntityManagerContext() {
+    }
+
+    /**
+     * start sharing one entity manager on this thread. a scope which is already open is kept.
+     *
+     * @return true if a new scope was opened, only then {@link #close()} should be called by the caller
+     */
+    public static boolean open() {
+        if( SCOPE.get() != null ){
+            return false;
+        }
+        SCOPE.set( new Scope() );
+        return true;
+    }
+
+    /**
+     * close the entity manager of this thread if one was created and end the scope. a transaction left active is
+     * rolled back.
+     */
+    public static void close() {
+        Scope scope = SCOPE.get();
+        SCOPE.remove();
+        if( scope == null || scope.em == null ){
+            return;
+        }
+        try {
+            if( scope.em.getTransaction().isActive() ){
+                Logger.getLogger( EntityManagerContext.class.getName() ).log( Level.WARNING, "transaction left active, rolling back" );
+                scope.em.getTransaction().rollback();
+            }
+        } finally {
+            scope.em.close();
+        }
+    }
+
+    /**
+     * run work in one transaction, every DAL called by work on this thread joins it so all of its writes are committed
+     * or rolled back together. a scope is opened for the call if none is open. if a transaction is already active work
+     * simply joins it and whoever began it commits.
+     *
+     * @param work - logic or DAL calls to run in the transaction
+     *
+     * @throws RuntimeException thrown by work or by commit, the transaction is rolled back
+     */
+    public static void inTransaction( Runnable work ) {
+        boolean opened = open();
+        try {
+            EntityTransaction tx = current().getTransaction();
+            if( tx.isActive() ){
+                work.run();
+                return;
+            }
+            tx.begin();
+            try {
+                work.run();
+                //fails if a DAL marked it for rollback
+                tx.commit();
+            } catch( RuntimeException ex ) {
+                if( tx.isActive() ){
+                    tx.rollback();
+                }
+                throw ex;
+            }
+        } finally {
+            if( opened ){
+                close();
+            }
+        }
+    }
+
+    /**
+     * @return true if a scope is open on this thread
+     */
+    public static boolean isOpen() {
+        return SCOPE.get() != null;
+    }
+
+    /**
+     * @return true if the shared entity manager of this thread has an active transaction, i.e. inside
+     * {@link #inTransaction(Runnable)}. no entity manager is created by this check.
+     */
+    public static boolean isTransactionActive() {
+        Scope scope = SCOPE.get();
+        return scope != null && scope.em != null && scope.em.isOpen() && scope.em.getTransaction().isActive();
+    }
+
+    /**
+     * @return shared entity manager of this thread, created on first call, or null if no scope is open
+     */
+    static EntityManager current() {
+        Scope scope = SCOPE.get();
+        if( scope == null ){
+            return null;
+        }
+        if( scope.em == null || !scope.em.isOpen() ){
+            scope.em = EMFactory.getEMF().createEntityManager();
+        }
+        return scope.em;
+    }
+}
@@ -1,15 +1,40 @@
 package dal;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.Query;
 
 /**
  *
@@ -18,15 +43,53 @@ import javax.persistence.criteria.CriteriaQuery;
  */
 abstract class GenericDAL<T> implements DataAccessLayer<T> {
 
+    /**
+     * number of rows sent to DB at once by {@link #saveAll(Collection)}, matches hibernate.jdbc.batch_size.
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * query hint taking an entity graph, attributes in the graph are fetched with the rows and the rest keep their
+     * mapped fetch type.
+     */
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    /**
+     * column name in cursors of {@link #findContaining(String, String, int)}, they cannot be used for other pages.
+     */
+    private static final String SEARCH_CURSOR = "search";
+
     /**
      * entity class type of this DAO
      */
     private final Class<T> entityClass;
 
     /**
-     * entity manager used in this DAO
+     * state of one transaction, kept per thread so one DAO can be used by many threads at once.
+     */
+    private static final class Transaction {
+
+        private final EntityManager em;
+        /**
+         * em belongs to {@link EntityManagerContext} and outlives this transaction.
+         */
+        private final boolean shared;
+        /**
+         * transaction was already active on the shared em, it is committed or rolled back by whoever began it.
+         */
+        private final boolean joined;
+
+        private Transaction( EntityManager em, boolean shared, boolean joined ) {
+            this.em = em;
+            this.shared = shared;
+            this.joined = joined;
+        }
+    }
+
+    /**
+     * transaction of current thread, set by {@link #beginTransaction()} and removed by {@link #closeTransaction()}.
      */
-    private EntityManager em;
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
 
     /**
      * create a DAO and initialize the Entity class type
@@ -38,34 +101,83 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
     }
 
     /**
-     * start the transaction.
+     * start the transaction on current thread. if {@link EntityManagerContext} is open on this thread its entity
+     * manager is used, otherwise a new one is created.
+     *
+     * @throws IllegalStateException if the shared transaction is marked for rollback by an earlier failed write, work
+     * joining it would be silently rolled back at the end of the request
      */
     public void beginTransaction() {
-        // get an entity manager from the factory
-        em = EMFactory.getEMF().createEntityManager();
-        //start the transaction
-        em.getTransaction().begin();
+        EntityManager bound = EntityManagerContext.current();
+        boolean shared = bound != null;
+        // get an entity manager from the context or the factory
+        EntityManager em = shared ? bound : EMFactory.getEMF().createEntityManager();
+        boolean joined = shared && em.getTransaction().isActive();
+        if( joined && em.getTransaction().getRollbackOnly() ){
+            throw new IllegalStateException( "transaction of this request is marked for rollback by an earlier failed write" );
+        }
+        if( !joined ){
+            //start the transaction
+            em.getTransaction().begin();
+        }
+        transaction.set( new Transaction( em, shared, joined ) );
     }
 
     /**
      * commit changes to theDB
      */
     public void commit() {
-        em.getTransaction().commit();
+        if( !tx().joined ){
+            em().getTransaction().commit();
+        }
     }
 
     /**
      * roll back the changed before the commit
      */
     public void rollback() {
-        em.getTransaction().rollback();
+        Transaction tx = tx();
+        if( tx.joined ){
+            tx.em.getTransaction().setRollbackOnly();
+            return;
+        }
+        //a failed commit has already ended the transaction
+        if( tx.em.getTransaction().isActive() ){
+            tx.em.getTransaction().rollback();
+        }
+        if( tx.shared ){
+            //entities of the failed transaction must not be reused by later calls of the same request
+            tx.em.clear();
+        }
     }
 
     /**
-     * close the transaction and entity manager
+     * close the transaction and entity manager. a shared entity manager stays open and a transaction left active by
+     * a read is rolled back.
      */
     public void closeTransaction() {
-        em.close();
+        Transaction tx = tx();
+        transaction.remove();
+        if( !tx.shared ){
+            tx.em.close();
+        } else if( !tx.joined && tx.em.getTransaction().isActive() ){
+            tx.em.getTransaction().rollback();
+        }
+    }
+
+    private Transaction tx() {
+        Transaction tx = transaction.get();
+        if( tx == null ){
+            throw new IllegalStateException( "no transaction on this thread, call beginTransaction first" );
+        }
+        return tx;
+    }
+
+    /**
+     * @return entity manager of the transaction of current thread
+     */
+    private EntityManager em() {
+        return tx().em;
     }
 
     /**
@@ -82,7 +194,8 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      * @param entity - entity object to be saved before commit
      */
     public void save( T entity ) {
-        em.persist( entity );
+        em().persist( entity );
+        remember( Collections.singletonList( entity ) );
     }
 
     /**
@@ -92,7 +205,9 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      * @return persistence instate of given entity
      */
     public T update( T entity ) {
-        return em.<T>merge( entity );
+        T merged = em().<T>merge( entity );
+        remember( Collections.singletonList( merged ) );
+        return merged;
     }
 
     /**
@@ -102,13 +217,278 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      */
     public void delete( T entity ) {
         //by merging this entity is tracked by entitymanger and if needed it can cascade remove
-        T entityToBeRemoved = em.<T>merge( entity );
+        T entityToBeRemoved = em().<T>merge( entity );
         //remove entity
-        em.remove( entityToBeRemoved );
+        em().remove( entityToBeRemoved );
+    }
+
+    /**
+     * save all entities in chunks of {@value #BATCH_SIZE}. if {@link #batchStatement()} is provided the rows are sent
+     * as JDBC batches, otherwise they are persisted and the entity manager is flushed after every chunk and the chunk
+     * is detached so memory does not grow with the number of entities. a private entity manager is simply cleared, the
+     * shared one of {@link EntityManagerContext} keeps the other entities its request has loaded.
+     *
+     * @param entities - new entities to be saved before commit
+     * @return number of saved entities
+     */
+    @Override
+    public int saveAll( Collection<T> entities ) {
+        long start = System.nanoTime();
+        BatchStatement<T> statement = batchStatement();
+        if( statement == null ){
+            EntityManager em = em();
+            boolean shared = tx().shared;
+            List<T> chunk = new ArrayList<>( Math.min( BATCH_SIZE, entities.size() ) );
+            for( T entity: entities ) {
+                em.persist( entity );
+                chunk.add( entity );
+                if( chunk.size() == BATCH_SIZE ){
+                    flushAndRelease( em, shared, chunk );
+                }
+            }
+            flushAndRelease( em, shared, chunk );
+            remember( entities );
+        } else {
+            executeBatches( statement, entities, BatchStatement.Mode.INSERT );
+        }
+        logRate( "saved", entities.size(), start );
+        return entities.size();
+    }
+
+    private static <T> void flushAndRelease( EntityManager em, boolean shared, List<T> chunk ) {
+        em.flush();
+        if( shared ){
+            chunk.forEach( em::detach );
+        } else {
+            em.clear();
+        }
+        chunk.clear();
+    }
+
+    /**
+     * insert entities whose natural key does not exist yet and overwrite the ones which do, one statement per
+     * {@value #BATCH_SIZE} entities. ids of all entities are set afterwards.
+     *
+     * @param entities - entities to be saved or updated
+     * @return number of rows inserted or changed as reported by the driver
+     */
+    @Override
+    public int upsertAll( Collection<T> entities ) {
+        long start = System.nanoTime();
+        int changed = executeBatches( requireBatchStatement(), entities, BatchStatement.Mode.UPSERT );
+        logRate( "upserted", entities.size(), start );
+        return changed;
+    }
+
+    /**
+     * insert entities whose natural key does not exist yet and skip the rest, one statement per {@value #BATCH_SIZE}
+     * entities. ids of all entities are set afterwards, for skipped ones it is the id of the existing row.
+     *
+     * @param entities - entities to be saved
+     * @return number of entities whose natural key had no row, found by a lookup before the insert
+     */
+    @Override
+    public int insertIfAbsentAll( Collection<T> entities ) {
+        long start = System.nanoTime();
+        int inserted = executeBatches( requireBatchStatement(), entities, BatchStatement.Mode.INSERT_IF_ABSENT );
+        logRate( "inserted if absent", entities.size(), start );
+        return inserted;
+    }
+
+    private BatchStatement<T> requireBatchStatement() {
+        BatchStatement<T> statement = batchStatement();
+        if( statement == null ){
+            throw new UnsupportedOperationException( entityClass.getSimpleName() + " has no natural key statement" );
+        }
+        return statement;
+    }
+
+    private int executeBatches( BatchStatement<T> statement, Collection<T> entities, BatchStatement.Mode mode ) {
+        //send pending changes first so inserts see them
+        em().flush();
+        List<T> list = new ArrayList<>( entities );
+        int changed = em().unwrap( Session.class ).doReturningWork( connection -> {
+            int count = 0;
+            for( int i = 0; i < list.size(); i += BATCH_SIZE ) {
+                count += statement.execute( connection, list.subList( i, Math.min( list.size(), i + BATCH_SIZE ) ), mode );
+            }
+            return count;
+        } );
+        remember( list );
+        evictCache();
+        return changed;
+    }
+
+    /**
+     * rows written by plain JDBC are unknown to hibernate. they are treated like a bulk update of the table: cached
+     * entities of this class and their natural ids are invalidated now and evicted again when the transaction ends,
+     * and cached queries over the table become stale, so no cache serves rows from before the write.
+     */
+    private void evictCache() {
+        SessionImplementor session = em().unwrap( SessionImplementor.class );
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister( entityClass );
+        session.getActionQueue().addAction( new BulkOperationCleanupAction( session, persister ) );
+    }
+
+    /**
+     * natural keys among given ones which are stored, checked against {@link #uniqueIdFilter()} first so only keys it
+     * cannot rule out are looked up, one query per {@value #BATCH_SIZE} keys.
+     *
+     * @param keys - natural keys to check, i.e. unique_id
+     * @return keys which exist in table
+     */
+    @Override
+    public Set<String> findStoredKeys( Collection<String> keys ) {
+        UniqueIdFilter<T> filter = requireUniqueIdFilter();
+        if( keys.isEmpty() ){
+            return Collections.emptySet();
+        }
+        return em().unwrap( Session.class ).doReturningWork( connection -> filter.findStored( connection, keys ) );
+    }
+
+    /**
+     * fill {@link #uniqueIdFilter()} from the table now instead of on first use of {@link #findStoredKeys(Collection)}.
+     */
+    @Override
+    public void loadStoredKeys() {
+        UniqueIdFilter<T> filter = requireUniqueIdFilter();
+        em().unwrap( Session.class ).doWork( filter::load );
+    }
+
+    private UniqueIdFilter<T> requireUniqueIdFilter() {
+        UniqueIdFilter<T> filter = uniqueIdFilter();
+        if( filter == null ){
+            throw new UnsupportedOperationException( entityClass.getSimpleName() + " keeps no set of stored keys" );
+        }
+        return filter;
+    }
+
+    /**
+     * add written entities to {@link #uniqueIdFilter()} and {@link #trigramIndex()} once the transaction commits, rows
+     * of a rolled back transaction are never reported as stored or found by search. the callback runs on the real
+     * commit, also when this DAO only joined the transaction of the request.
+     */
+    private void remember( Collection<T> entities ) {
+        UniqueIdFilter<T> filter = uniqueIdFilter();
+        TrigramIndex<T> index = trigramIndex();
+        if( filter == null && index == null ){
+            return;
+        }
+        List<T> written = new ArrayList<>( entities );
+        em().unwrap( SessionImplementor.class ).getActionQueue().registerProcess( ( success, session ) -> {
+            if( !success ){
+                return;
+            }
+            if( filter != null ){
+                filter.add( written );
+            }
+            if( index != null ){
+                index.add( written );
+            }
+        } );
+    }
+
+    /**
+     * rows containing given text, found through {@link #trigramIndex()} instead of scanning the table: candidates of
+     * the index are checked exactly by its verify query, {@value #BATCH_SIZE} ids at a time, until the page is full.
+     * texts shorter than 3 characters have no trigram and check every row, in the same chunks.
+     *
+     * @param text - text to find, compared like LIKE '%text%' without wildcards
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @return page of matching rows ordered by id
+     * @throws IllegalArgumentException if text is empty, limit is not positive or cursor is not valid
+     */
+    @Override
+    public Page<T> findContaining( String text, String afterCursor, int limit ) {
+        TrigramIndex<T> index = requireTrigramIndex();
+        if( text == null || text.isEmpty() ){
+            throw new IllegalArgumentException( "search text cannot be empty" );
+        }
+        if( limit < 1 ){
+            throw new IllegalArgumentException( "limit must be positive" );
+        }
+        em().unwrap( Session.class ).doWork( index::refresh );
+        int after = afterCursor == null ? 0 : ( (Number)PageCursor.decode( afterCursor, SEARCH_CURSOR, Page.Direction.ASC ).getId() ).intValue();
+        String pattern = text.replace( "!", "!!" ).replace( "%", "!%" ).replace( "_", "!_" );
+        List<T> found = new ArrayList<>();
+        int[] candidates;
+        while( found.size() <= limit && ( candidates = index.candidates( text, after, BATCH_SIZE ) ).length > 0 ){
+            List<Integer> ids = new ArrayList<>( candidates.length );
+            for( int id: candidates ) {
+                ids.add( id );
+            }
+            found.addAll( em().createNamedQuery( index.getVerifyQuery(), entityClass )
+                    .setParameter( "ids", ids )
+                    .setParameter( "text", pattern )
+                    .setMaxResults( limit + 1 - found.size() )
+                    .getResultList() );
+            after = candidates[ candidates.length - 1 ];
+        }
+        if( found.size() <= limit ){
+            return new Page<>( found, null );
+        }
+        List<T> items = new ArrayList<>( found.subList( 0, limit ) );
+        EntityType<T> type = em().getMetamodel().entity( entityClass );
+        Object lastId = read( type.getId( type.getIdType().getJavaType() ), items.get( limit - 1 ) );
+        return new Page<>( items, PageCursor.encode( SEARCH_CURSOR, Page.Direction.ASC, lastId, lastId ) );
+    }
+
+    /**
+     * fill {@link #trigramIndex()} from the table now instead of on first use of
+     * {@link #findContaining(String, String, int)}.
+     */
+    @Override
+    public void loadSearchIndex() {
+        TrigramIndex<T> index = requireTrigramIndex();
+        em().unwrap( Session.class ).doWork( index::load );
+    }
+
+    private TrigramIndex<T> requireTrigramIndex() {
+        TrigramIndex<T> index = trigramIndex();
+        if( index == null ){
+            throw new UnsupportedOperationException( entityClass.getSimpleName() + " has no search index" );
+        }
+        return index;
+    }
+
+    private void logRate( String action, int rows, long startNanos ) {
+        long millis = Math.max( 1, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startNanos ) );
+        Logger.getLogger( getClass().getName() ).log( Level.INFO, "{0} {1} {2} in {3}ms, {4} rows/s",
+                new Object[]{ action, rows, entityClass.getSimpleName(), millis, rows * 1000L / millis } );
+    }
+
+    /**
+     * override to let {@link #saveAll(Collection)} use plain JDBC batches.
+     *
+     * @return insert statement for this entity, null to use the entity manager
+     */
+    BatchStatement<T> batchStatement() {
+        return null;
+    }
+
+    /**
+     * override to keep an in memory set of stored natural keys, used by {@link #findStoredKeys(Collection)}. the same
+     * instance must be returned every time.
+     *
+     * @return filter of this table, null if there is none
+     */
+    UniqueIdFilter<T> uniqueIdFilter() {
+        return null;
+    }
+
+    /**
+     * override to keep an in memory trigram index of text columns, used by
+     * {@link #findContaining(String, String, int)}. the same instance must be returned every time.
+     *
+     * @return index of this table, null if there is none
+     */
+    TrigramIndex<T> trigramIndex() {
+        return null;
     }
 
     public void detach( T entity ) {
-        em.detach( entity );
+        em().detach( entity );
     }
 
     /**
@@ -118,7 +498,60 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      * @return entity object or null of not found
      */
     public T find( Object entityID ) {
-        return em.<T>find( entityClass, entityID );
+        return em().<T>find( entityClass, entityID );
+    }
+
+    /**
+     * get the entity with given key and the associations of given fetch plan in one query.
+     *
+     * @param entityID = primary key
+     * @param fetchPlan - name of a named entity graph of this entity, i.e. {@link entity.Post#WITH_AUTHOR_AND_SUBREDDIT},
+     * null for none
+     * @return entity object or null of not found
+     * @throws IllegalArgumentException if there is no such fetch plan
+     */
+    @Override
+    public T find( Object entityID, String fetchPlan ) {
+        if( fetchPlan == null ){
+            return find( entityID );
+        }
+        return em().<T>find( entityClass, entityID, Map.of( LOAD_GRAPH, fetchPlan( fetchPlan, false ) ) );
+    }
+
+    /**
+     * @param name - name of a named entity graph of this entity
+     * @param paged - rows are limited, collections cannot be joined then
+     * @return entity graph with given name
+     * @throws IllegalArgumentException if there is no such graph or it joins a collection into a page
+     */
+    private EntityGraph<?> fetchPlan( String name, boolean paged ) {
+        EntityGraph<?> graph;
+        try {
+            graph = em().getEntityGraph( name );
+        } catch( IllegalArgumentException ex ) {
+            throw new IllegalArgumentException( entityClass.getSimpleName() + " has no fetch plan " + name, ex );
+        }
+        if( paged ){
+            for( AttributeNode<?> node: graph.getAttributeNodes() ){
+                //a joined collection multiplies rows, hibernate would then limit the page in memory after reading all
+                if( em().getMetamodel().entity( entityClass ).getAttribute( node.getAttributeName() ).isCollection() ){
+                    throw new IllegalArgumentException( "fetch plan " + name + " loads collection " + node.getAttributeName()
+                            + " and cannot be used with a limit, collections are batch fetched instead" );
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * find entity by its {@link org.hibernate.annotations.NaturalId}. if the entity is cached the natural id cache
+     * resolves the id and the second level cache the row, without a query.
+     *
+     * @param naturalId - value of natural id
+     * @return entity or null if not found
+     */
+    protected T findByNaturalId( Object naturalId ) {
+        return em().unwrap( Session.class ).bySimpleNaturalId( entityClass ).load( naturalId );
     }
 
     /**
@@ -128,11 +561,221 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      */
     public List<T> findAllCQ() {
         //using the builder create a CriteriaQuery of type entityClass
-        CriteriaQuery<T> cq = em.getCriteriaBuilder().<T>createQuery( entityClass );
+        CriteriaQuery<T> cq = em().getCriteriaBuilder().<T>createQuery( entityClass );
         //select everything form entityClass
         cq.select( cq.<T>from( entityClass ) );
         //create the query based on CriteriaQuery, exeucte and return the results
-        return em.<T>createQuery( cq ).getResultList();
+        return em().<T>createQuery( cq ).getResultList();
+    }
+
+    /**
+     * keyset pagination: rows after the cursor are found with a WHERE on column and id instead of skipping rows, so
+     * MySQL seeks straight to the first row of the page through an index on (column, id). one extra row is read to
+     * know if there is a next page.
+     *
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @param column - name of a non null entity attribute to order by, i.e. "id" or "created"
+     * @param direction - ascending or descending order
+     * @return page of rows with the cursor of next page
+     * @throws IllegalArgumentException if column cannot be used for paging or cursor is not valid for it
+     */
+    @Override
+    public Page<T> findPage( String afterCursor, int limit, String column, Page.Direction direction ) {
+        return findPage( afterCursor, limit, column, direction, null );
+    }
+
+    /**
+     * {@link #findPage(String, int, String, Page.Direction)} with the associations of given fetch plan joined into
+     * the page query, so reading them costs no query per row.
+     *
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @param column - name of a non null entity attribute to order by, i.e. "id" or "created"
+     * @param direction - ascending or descending order
+     * @param fetchPlan - name of a named entity graph of this entity without collections, null for none
+     * @return page of rows with the cursor of next page
+     * @throws IllegalArgumentException if column cannot be used for paging, cursor is not valid for it or fetch plan
+     * does not exist or loads a collection
+     */
+    @Override
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public Page<T> findPage( String afterCursor, int limit, String column, Page.Direction direction, String fetchPlan ) {
+        if( limit < 1 ){
+            throw new IllegalArgumentException( "limit must be positive" );
+        }
+        Objects.requireNonNull( direction, "direction cannot be null" );
+        EntityType<T> type = em().getMetamodel().entity( entityClass );
+        SingularAttribute<? super T, ?> idAttribute = type.getId( type.getIdType().getJavaType() );
+        SingularAttribute<? super T, ?> attribute = pageAttribute( type, column );
+        boolean byId = attribute.equals( idAttribute );
+        boolean asc = direction == Page.Direction.ASC;
+
+        CriteriaBuilder cb = em().getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery( entityClass );
+        Root<T> root = cq.from( entityClass );
+        Path<Comparable> key = root.get( column );
+        Path<Comparable> id = root.get( idAttribute.getName() );
+        if( afterCursor != null ){
+            PageCursor cursor = PageCursor.decode( afterCursor, column, direction );
+            Comparable value = (Comparable)cursor.getValue();
+            Predicate after = asc ? cb.greaterThan( key, value ) : cb.lessThan( key, value );
+            if( !byId ){
+                //rows with the same value as the last row continue by id
+                Comparable lastId = (Comparable)cursor.getId();
+                after = cb.or( after, cb.and( cb.equal( key, value ), asc ? cb.greaterThan( id, lastId ) : cb.lessThan( id, lastId ) ) );
+            }
+            cq.where( after );
+        }
+        if( byId ){
+            cq.orderBy( asc ? cb.asc( id ) : cb.desc( id ) );
+        } else {
+            cq.orderBy( asc ? cb.asc( key ) : cb.desc( key ), asc ? cb.asc( id ) : cb.desc( id ) );
+        }
+        TypedQuery<T> query = em().createQuery( cq ).setMaxResults( limit + 1 );
+        if( fetchPlan != null ){
+            query.setHint( LOAD_GRAPH, fetchPlan( fetchPlan, true ) );
+        }
+        List<T> rows = query.getResultList();
+        if( rows.size() <= limit ){
+            return new Page<>( rows, null );
+        }
+        List<T> items = new ArrayList<>( rows.subList( 0, limit ) );
+        T last = items.get( limit - 1 );
+        String next = PageCursor.encode( column, direction, read( attribute, last ), read( idAttribute, last ) );
+        return new Page<>( items, next );
+    }
+
+    /**
+     * projection of given columns for one page of rows ordered by id. only those columns are selected and each row is
+     * a plain list, so no entity is created, put in the persistence context or snapshot for dirty checking, and a
+     * foreign key column is read as the id of the association without touching the associated row. the id is
+     * selected last for the cursor and is not part of the rows. a cursor of
+     * {@link #findPage(String, int, String, Page.Direction)} by id ascending can be used and the other way round.
+     *
+     * @param columns - table column names, i.e. column codes of a logic
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null for first page
+     * @param limit - maximum number of rows in page
+     * @return one list per row with values in the same order as columns, with the cursor of next page
+     * @throws IllegalArgumentException if a column is not mapped by the entity, limit is not positive or cursor is not
+     * valid
+     */
+    @Override
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public Page<List<?>> findColumns( List<String> columns, String afterCursor, int limit ) {
+        if( Objects.requireNonNull( columns, "columns cannot be null" ).isEmpty() ){
+            throw new IllegalArgumentException( "columns cannot be empty" );
+        }
+        if( limit < 1 ){
+            throw new IllegalArgumentException( "limit must be positive" );
+        }
+        CriteriaBuilder cb = em().getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery( Object[].class );
+        Root<T> root = cq.from( entityClass );
+        List<Selection<?>> selections = new ArrayList<>( columns.size() + 1 );
+        for( String column: columns ){
+            Path<?> path = root;
+            for( String attribute: ColumnPaths.of( EMFactory.getEMF(), entityClass, column ).split( "\\." ) ){
+                path = path.get( attribute );
+            }
+            selections.add( path );
+        }
+        EntityType<T> type = em().getMetamodel().entity( entityClass );
+        String idName = type.getId( type.getIdType().getJavaType() ).getName();
+        Path<Comparable> id = root.get( idName );
+        selections.add( id );
+        cq.multiselect( selections ).orderBy( cb.asc( id ) );
+        if( afterCursor != null ){
+            cq.where( cb.greaterThan( id, (Comparable)PageCursor.decode( afterCursor, idName, Page.Direction.ASC ).getId() ) );
+        }
+        List<Object[]> found = em().createQuery( cq ).setMaxResults( limit + 1 ).getResultList();
+        List<List<?>> rows = new ArrayList<>( Math.min( limit, found.size() ) );
+        for( int i = 0; i < found.size() && i < limit; i++ ){
+            rows.add( Arrays.asList( Arrays.copyOf( found.get( i ), columns.size() ) ) );
+        }
+        if( found.size() <= limit ){
+            return new Page<>( rows, null );
+        }
+        Object lastId = found.get( limit - 1 )[ columns.size() ];
+        return new Page<>( rows, PageCursor.encode( idName, Page.Direction.ASC, lastId, lastId ) );
+    }
+
+    private SingularAttribute<? super T, ?> pageAttribute( EntityType<T> type, String column ) {
+        SingularAttribute<? super T, ?> attribute;
+        try {
+            attribute = type.getSingularAttribute( Objects.requireNonNull( column, "column cannot be null" ) );
+        } catch( IllegalArgumentException ex ) {
+            throw new IllegalArgumentException( entityClass.getSimpleName() + " has no column " + column, ex );
+        }
+        if( attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC || attribute.isOptional() && !attribute.isId()
+                || !PageCursor.supports( attribute.getJavaType() ) ){
+            throw new IllegalArgumentException( column + " cannot be used for paging, it must be a non null number, string or date" );
+        }
+        return attribute;
+    }
+
+    private static Object read( SingularAttribute<?, ?> attribute, Object entity ) {
+        Field field = (Field)attribute.getJavaMember();
+        try {
+            field.setAccessible( true );
+            return field.get( entity );
+        } catch( IllegalAccessException ex ) {
+            throw new IllegalStateException( "cannot read " + attribute.getName(), ex );
+        }
+    }
+
+    /**
+     * stream every row ordered by id, see {@link #stream(EntityManager, TypedQuery)}.
+     *
+     * @return stream of all rows, must be closed
+     */
+    @Override
+    public Stream<T> streamAll() {
+        EntityManager em = EMFactory.getEMF().createEntityManager();
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery( entityClass );
+        Root<T> root = cq.from( entityClass );
+        EntityType<T> type = em.getMetamodel().entity( entityClass );
+        cq.select( root ).orderBy( cb.asc( root.get( type.getId( type.getIdType().getJavaType() ) ) ) );
+        return stream( em, em.createQuery( cq ) );
+    }
+
+    /**
+     * stream result of a named query, see {@link #stream(EntityManager, TypedQuery)}.
+     *
+     * @param namedQuery - named query defined in entity class
+     * @param parameters - parameters to be set in named query, can be null
+     * @return stream of results, must be closed
+     */
+    protected Stream<T> stream( String namedQuery, Map<String, Object> parameters ) {
+        EntityManager em = EMFactory.getEMF().createEntityManager();
+        TypedQuery<T> query = em.createNamedQuery( Objects.requireNonNull( namedQuery, "named query cannot be null" ), entityClass );
+        if( parameters != null ){
+            parameters.forEach( query::setParameter );
+        }
+        return stream( em, query );
+    }
+
+    /**
+     * MySQL sends rows one by one as they are read when fetch size is Integer.MIN_VALUE, instead of the whole result
+     * at once. rows are read only, skip the second level cache and the persistence context is cleared every
+     * {@value #BATCH_SIZE} rows. the query has a connection to itself until the stream is closed, so it does not use
+     * the entity manager of {@link EntityManagerContext} and lazy associations of streamed rows cannot be loaded, only
+     * their ids are known.
+     */
+    private Stream<T> stream( EntityManager em, TypedQuery<T> query ) {
+        try {
+            em.getTransaction().begin();
+            ScrollableResults results = query.unwrap( Query.class )
+                    .setFetchSize( Integer.MIN_VALUE )
+                    .setReadOnly( true )
+                    .setCacheMode( CacheMode.IGNORE )
+                    .scroll( ScrollMode.FORWARD_ONLY );
+            return ScrollingSpliterator.stream( em, results );
+        } catch( RuntimeException ex ) {
+            em.close();
+            throw ex;
+        }
     }
 
     /**
@@ -169,10 +812,46 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      * @return List result
      */
     protected List<T> findResults( String namedQuery, Map<String, Object> parameters ) {
+        return findResults( namedQuery, parameters, -1 );
+    }
+
+    /**
+     * find list of results using the named query and given parameters, returning at most maxResults rows
+     *
+     * @param namedQuery - named query defined in entity class
+     * @param parameters - parameters to be set in named query, a map of keys (name place holder in named query) and
+     * value (value to replace the place holder in named query)
+     * @param maxResults - maximum number of rows to return, negative for no limit
+     * @return List result
+     */
+    protected List<T> findResults( String namedQuery, Map<String, Object> parameters, int maxResults ) {
+        return findResults( namedQuery, parameters, maxResults, null );
+    }
+
+    /**
+     * find list of results using the named query and given parameters, with the associations of given fetch plan
+     * loaded by the same query
+     *
+     * @param namedQuery - named query defined in entity class
+     * @param parameters - parameters to be set in named query, a map of keys (name place holder in named query) and
+     * value (value to replace the place holder in named query)
+     * @param maxResults - maximum number of rows to return, negative for no limit
+     * @param fetchPlan - name of a named entity graph of this entity, null for none. it cannot load a collection when
+     * maxResults is set
+     * @return List result
+     */
+    protected List<T> findResults( String namedQuery, Map<String, Object> parameters, int maxResults, String fetchPlan ) {
+        EntityGraph<?> graph = fetchPlan == null ? null : fetchPlan( fetchPlan, maxResults >= 0 );
         List<T> result = null;
         try {
             TypedQuery<T> query = checkCreateAndSetTypedQuery( namedQuery );
             query = setParameters( query, parameters );
+            if( maxResults >= 0 ){
+                query.setMaxResults( maxResults );
+            }
+            if( graph != null ){
+                query.setHint( LOAD_GRAPH, graph );
+            }
 
             result = query.getResultList();
         } catch( NoResultException e ) {
@@ -195,7 +874,7 @@ abstract class GenericDAL<T> implements DataAccessLayer<T> {
      */
     private TypedQuery<T> checkCreateAndSetTypedQuery( String namedQuery ) {
         Objects.requireNonNull( namedQuery, "named query cannot be null" );
-        return em.<T>createNamedQuery( namedQuery, entityClass );
+        return em().<T>createNamedQuery( namedQuery, entityClass );
     }
 
     /**
@@ -0,0 +1,76 @@
+package dal;
+
+import common.Base36;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * natural key column used by plain JDBC statements of the DAL. unique_id of post and comment is either the base36
+ * string or, once migrated, its BIGINT value, see {@link entity.Post}. the type is read from the DB once per column, a
+ * migrated DB needs a restart.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+final class KeyColumn {
+
+    private static final Map<String, KeyColumn> COLUMNS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final boolean bigint;
+
+    private KeyColumn( String name, boolean bigint ) {
+        this.name = name;
+        this.bigint = bigint;
+    }
+
+    /**
+     * @param connection - connection used to read column type the first time
+     * @param table - name of table
+     * @param column - name of key column
+     * @return key column of given table
+     * @throws SQLException if column type cannot be read
+     */
+    static KeyColumn of( Connection connection, String table, String column ) throws SQLException {
+        String id = table + "." + column;
+        KeyColumn key = COLUMNS.get( id );
+        if( key == null ){
+            boolean bigint = false;
+            try( ResultSet columns = connection.getMetaData().getColumns( connection.getCatalog(), null, table, column ) ) {
+                if( columns.next() ){
+                    bigint = columns.getInt( "DATA_TYPE" ) == Types.BIGINT;
+                }
+            }
+            key = new KeyColumn( column, bigint );
+            COLUMNS.put( id, key );
+        }
+        return key;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if values are stored as BIGINT, false if stored as given
+     */
+    boolean isBigint() {
+        return bigint;
+    }
+
+    void bind( PreparedStatement statement, int index, String value ) throws SQLException {
+        if( bigint ){
+            statement.setLong( index, Base36.decode( value ) );
+        } else {
+            statement.setString( index, value );
+        }
+    }
+
+    String read( ResultSet row, int index ) throws SQLException {
+        return bigint ? Base36.encode( row.getLong( index ) ) : row.getString( index );
+    }
+}
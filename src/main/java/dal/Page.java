@@ -0,0 +1,47 @@
+package dal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * one page of rows returned by {@link DataAccessLayer#findPage(String, int, String, Page.Direction)}. the next page is
+ * asked for with {@link #getNextCursor()}, the cursor is opaque and only valid for the same column and direction.
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <E> - entity type
+ */
+public final class Page<E> {
+
+    /**
+     * order of rows by the page column.
+     */
+    public enum Direction {
+        ASC, DESC
+    }
+
+    private final List<E> items;
+    private final String nextCursor;
+
+    Page( List<E> items, String nextCursor ) {
+        this.items = Collections.unmodifiableList( items );
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return rows of this page, at most the limit asked for
+     */
+    public List<E> getItems() {
+        return items;
+    }
+
+    /**
+     * @return cursor to pass as afterCursor for the next page, null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,102 @@
+package dal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * position after the last row of a page: value of the page column and id of that row, encoded with the column and
+ * direction so a cursor of one ordering cannot be used with another. base64 so callers treat it as opaque.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final Object value;
+    private final Object id;
+
+    private PageCursor( Object value, Object id ) {
+        this.value = value;
+        this.id = id;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    Object getId() {
+        return id;
+    }
+
+    /**
+     * @return true if values of given type can be stored in a cursor
+     */
+    static boolean supports( Class<?> type ) {
+        return code( type ) != 0;
+    }
+
+    static String encode( String column, Page.Direction direction, Object value, Object id ) {
+        //value goes last, it is the only part which may contain the separator
+        String plain = String.join( SEPARATOR, column, direction.name(), String.valueOf( code( id.getClass() ) ), id.toString(),
+                String.valueOf( code( value.getClass() ) ), value instanceof Date ? Long.toString( ( (Date)value ).getTime() ) : value.toString() );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString( plain.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * @param cursor - cursor made by {@link #encode(String, Page.Direction, Object, Object)}
+     * @param column - column of the page asked for
+     * @param direction - direction of the page asked for
+     * @return decoded cursor
+     * @throws IllegalArgumentException if cursor is damaged or made for another column or direction
+     */
+    static PageCursor decode( String cursor, String column, Page.Direction direction ) {
+        String[] parts;
+        try {
+            parts = new String( Base64.getUrlDecoder().decode( cursor ), StandardCharsets.UTF_8 ).split( "\\" + SEPARATOR, 6 );
+        } catch( IllegalArgumentException ex ) {
+            throw new IllegalArgumentException( "cursor is not valid", ex );
+        }
+        if( parts.length != 6 || !parts[ 0 ].equals( column ) || !parts[ 1 ].equals( direction.name() ) ){
+            throw new IllegalArgumentException( "cursor does not belong to " + column + " " + direction );
+        }
+        return new PageCursor( parse( parts[ 4 ], parts[ 5 ] ), parse( parts[ 2 ], parts[ 3 ] ) );
+    }
+
+    private static char code( Class<?> type ) {
+        if( type == Integer.class || type == int.class ){
+            return 'i';
+        } else if( type == Long.class || type == long.class ){
+            return 'l';
+        } else if( type == String.class ){
+            return 's';
+        } else if( Date.class.isAssignableFrom( type ) ){
+            return 'd';
+        } else if( type == Boolean.class || type == boolean.class ){
+            return 'b';
+        }
+        return 0;
+    }
+
+    private static Object parse( String code, String text ) {
+        try {
+            switch( code ) {
+                case "i":
+                    return Integer.valueOf( text );
+                case "l":
+                    return Long.valueOf( text );
+                case "s":
+                    return text;
+                case "d":
+                    return new Date( Long.parseLong( text ) );
+                case "b":
+                    return Boolean.valueOf( text );
+                default:
+                    throw new IllegalArgumentException( "cursor is not valid" );
+            }
+        } catch( NumberFormatException ex ) {
+            throw new IllegalArgumentException( "cursor is not valid", ex );
+        }
+    }
+}
@@ -3,7 +3,9 @@ package dal;
 import entity.Post;
 import entity.RedditAccount;
 
+import java.sql.Timestamp;
 import java.util.Date;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +16,11 @@ import java.util.Map;
  */
 public class PostDAL extends GenericDAL<Post> {
 
+    /**
+     * unique_id of every stored post, shared by all instances.
+     */
+    private static final UniqueIdFilter<Post> STORED = new UniqueIdFilter<>( "post", "unique_id", Post::getUniqueID );
+
     public PostDAL() {
         super( Post.class );
     }
@@ -37,6 +44,19 @@ public class PostDAL extends GenericDAL<Post> {
         return findResult( "Post.findById", map );
     }
 
+    /**
+     * used to walk the whole table in chunks, ordered by id.
+     *
+     * @param id - last id of previous chunk, 0 for first chunk
+     * @param max - maximum number of posts to return
+     * @return posts with id greater than given id
+     */
+    public List<Post> findAfterId( int id, int max ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "id", id );
+        return findResults( "Post.findAfterId", map, max );
+    }
+
     public Post findByUniqueId( String uniqueId ) {
         Map<String, Object> map = new HashMap<>();
         map.put( "uniqueId", uniqueId );
@@ -73,5 +93,23 @@ public class PostDAL extends GenericDAL<Post> {
         return findResults( "Post.findByAuthor", map );
     }
 
+    @Override
+    BatchStatement<Post> batchStatement() {
+        return new BatchStatement<>( "post",
+                Arrays.asList( "reddit_account_id", "subreddit_id", "unique_id", "points", "comment_count", "title", "created" ),
+                "unique_id", Post::getUniqueID, Arrays.asList( "points", "comment_count", "title" ),
+                ( statement, p ) -> {
+                    statement.setInt( 1, p.getRedditAccountId().getId() );
+                    statement.setInt( 2, p.getSubredditId().getId() );
+                    statement.setInt( 4, p.getPoints() );
+                    statement.setInt( 5, p.getCommentCount() );
+                    statement.setString( 6, p.getTitle() );
+                    statement.setTimestamp( 7, new Timestamp( p.getCreated().getTime() ) );
+                }, ( p, id ) -> p.setId( id ) );
+    }
 
+    @Override
+    UniqueIdFilter<Post> uniqueIdFilter() {
+        return STORED;
+    }
 }
@@ -0,0 +1,85 @@
+package dal;
+
+import entity.RedditAccount;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class RedditAccountDAL extends GenericDAL<RedditAccount> {
+
+    public RedditAccountDAL() {
+        super( RedditAccount.class );
+    }
+
+    @Override
+    public List<RedditAccount> findAll() {
+        return findResults( "RedditAccount.findAll", null );
+    }
+
+    @Override
+    public RedditAccount findById( int id ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "id", id );
+        return findResult( "RedditAccount.findById", map );
+    }
+
+    /**
+     * used to walk the whole table in chunks, ordered by id.
+     *
+     * @param id - last id of previous chunk, 0 for first chunk
+     * @param max - maximum number of accounts to return
+     * @return accounts with id greater than given id
+     */
+    public List<RedditAccount> findAfterId( int id, int max ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "id", id );
+        return findResults( "RedditAccount.findAfterId", map, max );
+    }
+
+    public RedditAccount findByUniqueId( String uniqueId ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "uniqueId", uniqueId );
+        return findResult( "RedditAccount.findByUniqueId", map );
+    }
+
+    /**
+     * name is the natural id of account, repeated lookups are answered by the natural id and second level cache.
+     *
+     * @param name - name of account
+     * @return account or null if not found
+     */
+    public RedditAccount findByName( String name ) {
+        return findByNaturalId( name );
+    }
+
+    public List<RedditAccount> findByLinkPoints( int linkPoints ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "linkPoints", linkPoints );
+        return findResults( "RedditAccount.findByLinkPoints", map );
+    }
+
+    public List<RedditAccount> findByCommentPoints( int commentPoints ) {
+        Map<String, Object> map = new HashMap<>();
+        map.put( "commentPoints", commentPoints );
+        return findResults( "RedditAccount.findByCommentPoints", map );
+    }
+
+    @Override
+    BatchStatement<RedditAccount> batchStatement() {
+        return new BatchStatement<>( "reddit_account",
+                Arrays.asList( "unique_id", "name", "link_points", "comment_points", "created" ),
+                "name", RedditAccount::getName, Arrays.asList( "unique_id", "link_points", "comment_points" ),
+                ( statement, a ) -> {
+                    statement.setString( 1, a.getUniqueId() );
+                    statement.setInt( 3, a.getLinkPoints() );
+                    statement.setInt( 4, a.getCommentPoints() );
+                    statement.setTimestamp( 5, new Timestamp( a.getCreated().getTime() ) );
+                }, ( a, id ) -> a.setId( id ) );
+    }
+}
@@ -0,0 +1,81 @@
+package dal;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.persistence.EntityManager;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+/**
+ * rows of a scrolled query handed out one at a time, used by {@link GenericDAL#streamAll()}. owns its entity manager,
+ * which is cleared every {@value GenericDAL#BATCH_SIZE} rows so memory stays flat, and closed with the stream or when
+ * the last row is read.
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <T> - entity type
+ */
+final class ScrollingSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final EntityManager em;
+    private final ScrollableResults results;
+    private long count;
+    private boolean closed;
+
+    /**
+     * @param em - entity manager with an active transaction, owned by the stream from now on
+     * @param results - forward only results of a query made by em
+     * @return stream which must be closed, i.e. in try-with-resources
+     */
+    static <T> Stream<T> stream( EntityManager em, ScrollableResults results ) {
+        ScrollingSpliterator<T> spliterator = new ScrollingSpliterator<>( em, results );
+        return StreamSupport.stream( spliterator, false ).onClose( spliterator::close );
+    }
+
+    private ScrollingSpliterator( EntityManager em, ScrollableResults results ) {
+        super( Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL );
+        this.em = em;
+        this.results = results;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public boolean tryAdvance( Consumer<? super T> action ) {
+        if( closed ){
+            return false;
+        }
+        if( count > 0 && count % GenericDAL.BATCH_SIZE == 0 ){
+            //rows handed out before are detached, the consumer is done with them
+            em.unwrap( Session.class ).clear();
+        }
+        if( !results.next() ){
+            close();
+            return false;
+        }
+        count++;
+        action.accept( (T)results.get( 0 ) );
+        return true;
+    }
+
+    void close() {
+        if( closed ){
+            return;
+        }
+        closed = true;
+        try {
+            results.close();
+            //nothing was written, rolling back only ends the transaction
+            if( em.getTransaction().isActive() ){
+                em.getTransaction().rollback();
+            }
+        } catch( RuntimeException ex ) {
+            Logger.getLogger( ScrollingSpliterator.class.getName() ).log( Level.WARNING, "closing stream failed", ex );
+        } finally {
+            em.close();
+        }
+    }
+}
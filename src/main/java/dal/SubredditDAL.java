@@ -3,6 +3,7 @@ package dal;
 import entity.Subreddit;
 
 import java.util.Date;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,10 +37,27 @@ public class SubredditDAL extends GenericDAL<Subreddit> {
         return findResult( "Subreddit.findById", map );
     }
 
-    public Subreddit findByName( String name ) {
+    /**
+     * used to walk the whole table in chunks, ordered by id.
+     *
+     * @param id - last id of previous chunk, 0 for first chunk
+     * @param max - maximum number of subreddits to return
+     * @return subreddits with id greater than given id
+     */
+    public List<Subreddit> findAfterId( int id, int max ) {
         Map<String, Object> map = new HashMap<>();
-        map.put( "name", name );
-        return findResult( "Subreddit.findByName", map );
+        map.put( "id", id );
+        return findResults( "Subreddit.findAfterId", map, max );
+    }
+
+    /**
+     * name is the natural id of subreddit, repeated lookups are answered by the natural id and second level cache.
+     *
+     * @param name - name of subreddit
+     * @return subreddit or null if not found
+     */
+    public Subreddit findByName( String name ) {
+        return findByNaturalId( name );
     }
 //    public List<Subreddit> findAllByName( String name ) {
 //        Map<String, Object> map = new HashMap<>();
@@ -58,4 +76,14 @@ public class SubredditDAL extends GenericDAL<Subreddit> {
         return findResults( "Subreddit.findBySubscribers", map );
     }
 
+    @Override
+    BatchStatement<Subreddit> batchStatement() {
+        return new BatchStatement<>( "subreddit",
+                Arrays.asList( "name", "url", "subscribers" ),
+                "name", Subreddit::getName, Arrays.asList( "url", "subscribers" ),
+                ( statement, s ) -> {
+                    statement.setString( 2, s.getUrl() );
+                    statement.setInt( 3, s.getSubscribers() );
+                }, ( s, id ) -> s.setId( id ) );
+    }
 }
@@ -0,0 +1,481 @@
+package dal;
+
+import common.LongHashMap;
+import common.LongHashSet;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * In memory trigram index of text columns of one table, used for substring search without a LIKE '%...%' scan of
+ * the whole table.<br>
+ * Every 3 character sequence of the text, folded like utf8mb4_0900_ai_ci, the default MySQL 8 collation, compares it,
+ * maps to the sorted ids of rows containing it. Rows containing a search text contain all of its trigrams, so the
+ * intersection of their id lists is a small superset of the matches, which the DB then checks exactly with LIKE on
+ * those ids only. Answers are always exact, the index only narrows where to look.</p>
+ *
+ * <p>
+ * The index is filled by streaming the table once, on first search or when {@link #load(Connection)} is called at
+ * startup. Every committed write through the owning DAL adds its rows, also while the index is being loaded again.
+ * Rows written by anyone else, i.e. other processes, are read by a search at most every
+ * {@value #CATCH_UP_SECONDS} seconds, so they can be missed for that long. Trigrams of changed or deleted rows stay
+ * in the index, that only costs an exact check.</p>
+ *
+ * <p>
+ * Memory is not capped, it grows with the text of the table: 4 bytes per distinct trigram of each row plus about 48
+ * bytes per distinct trigram of the table, which the default collation keeps to a few hundred thousand for latin
+ * text. A row of n characters has at most n - 2 trigrams, so i.e. comments of 1000 characters cost at most ~4KB each
+ * and typically a third of that. The estimate is logged on every load, size the heap by it.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <T> - entity type
+ */
+final class TrigramIndex<T> {
+
+    /**
+     * separates text of different columns, no search text spans two columns.
+     */
+    static final String SEPARATOR = "\n";
+    /**
+     * ids below the highest id seen which are checked again on each search, rows of transactions which committed
+     * after a later id was read are indexed once they are visible.
+     */
+    private static final int CATCH_UP_MARGIN = 2_000;
+    /**
+     * minimum time between two reads of rows written by others.
+     */
+    private static final int CATCH_UP_SECONDS = 5;
+    /**
+     * accents and characters the collation ignores, i.e. soft hyphen and zero width joiner.
+     */
+    private static final Pattern IGNORED = Pattern.compile( "[\\p{M}\\p{Cf}]+" );
+    /**
+     * letters which have no decomposition but are compared as the base letters they are drawn from.
+     */
+    private static final String[][] LETTERS = { { "\u00e6", "ae" }, { "\u0153", "oe" }, { "\u00f8", "o" }, { "\u0111", "d" },
+        { "\u00f0", "d" }, { "\u0142", "l" }, { "\u0127", "h" }, { "\u0167", "t" }, { "\u0131", "i" } };
+
+    private final String table;
+    private final List<String> textColumns;
+    private final String verifyQuery;
+    private final Function<T, Integer> id;
+    private final Function<T, String> text;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * trigram to ids of rows containing it, guarded by lock.
+     */
+    private LongHashMap<Postings> postings;
+    /**
+     * ids of every indexed row, searches shorter than a trigram check all of them. guarded by lock.
+     */
+    private Postings all;
+    /**
+     * highest id read from the table, guarded by lock.
+     */
+    private int watermark;
+    /**
+     * rows added while {@link #load(Connection)} streams the table, replayed into the new index. null if no load is
+     * running, guarded by lock.
+     */
+    private List<Row> pending;
+    private volatile boolean loaded;
+    private volatile long lastCatchUp;
+
+    /**
+     * @param table - name of table, its primary key must be an int column named id
+     * @param textColumns - columns to index
+     * @param verifyQuery - named query selecting entities with an id in :ids and matching :text, ordered by id
+     * @param id - id of an entity
+     * @param text - values of textColumns in an entity joined with {@link #SEPARATOR}
+     */
+    TrigramIndex( String table, List<String> textColumns, String verifyQuery, Function<T, Integer> id, Function<T, String> text ) {
+        this.table = table;
+        this.textColumns = textColumns;
+        this.verifyQuery = verifyQuery;
+        this.id = id;
+        this.text = text;
+    }
+
+    /**
+     * @return named query checking candidates exactly, see constructor
+     */
+    String getVerifyQuery() {
+        return verifyQuery;
+    }
+
+    /**
+     * fill the index from the table, replacing what is indexed.
+     *
+     * @param connection - connection used to stream the rows
+     * @throws SQLException if reading rows fails
+     */
+    synchronized void load( Connection connection ) throws SQLException {
+        long start = System.nanoTime();
+        LongHashMap<Postings> fresh = new LongHashMap<>();
+        Postings ids = new Postings();
+        int max = 0;
+        long entries = 0;
+        LongHashSet seen = new LongHashSet();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try( Statement rows = connection.createStatement( ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY ) ) {
+            //MySQL driver streams rows one by one instead of reading the whole table into memory
+            rows.setFetchSize( Integer.MIN_VALUE );
+            try( ResultSet result = rows.executeQuery( select() + " ORDER BY id" ) ) {
+                while( result.next() ){
+                    int rowId = result.getInt( 1 );
+                    entries += index( fresh, seen, rowId, read( result ) );
+                    ids.add( rowId );
+                    max = rowId;
+                }
+            }
+        } catch( SQLException | RuntimeException ex ) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        lock.writeLock().lock();
+        try {
+            //rows committed through the DAL while streaming, the stream may have started before they were visible
+            for( Row row: pending ) {
+                entries += index( fresh, seen, row.id, row.text );
+                ids.add( row.id );
+            }
+            pending = null;
+            postings = fresh;
+            all = ids;
+            watermark = max;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        //rows written by others while streaming
+        catchUp( connection );
+        lastCatchUp = System.nanoTime();
+        Logger.getLogger( TrigramIndex.class.getName() ).log( Level.INFO, "indexed {0} rows of {1} in {2}ms, {3} trigrams, ~{4} bytes",
+                new Object[]{ ids.size, table, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ), fresh.size(),
+                    entries * Integer.BYTES + fresh.size() * 48L } );
+    }
+
+    /**
+     * load the index on first use, otherwise index rows written by anyone else if the last check is
+     * {@value #CATCH_UP_SECONDS} seconds old. only ids are read unless some are missing, which is one short index scan
+     * of the primary key.
+     *
+     * @param connection - connection of current transaction
+     * @throws SQLException if reading rows fails
+     */
+    void refresh( Connection connection ) throws SQLException {
+        if( !loaded ){
+            synchronized( this ) {
+                if( !loaded ){
+                    load( connection );
+                    return;
+                }
+            }
+        }
+        long now = System.nanoTime();
+        if( now - lastCatchUp < TimeUnit.SECONDS.toNanos( CATCH_UP_SECONDS ) ){
+            return;
+        }
+        //two searches at once may both catch up, that only indexes the same rows twice
+        lastCatchUp = now;
+        catchUp( connection );
+    }
+
+    private void catchUp( Connection connection ) throws SQLException {
+        int from;
+        lock.readLock().lock();
+        try {
+            from = Math.max( 0, watermark - CATCH_UP_MARGIN );
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> recent = new ArrayList<>();
+        try( PreparedStatement statement = connection.prepareStatement( "SELECT id FROM " + table + " WHERE id > ?" ) ) {
+            statement.setInt( 1, from );
+            try( ResultSet result = statement.executeQuery() ) {
+                while( result.next() ){
+                    recent.add( result.getInt( 1 ) );
+                }
+            }
+        }
+        List<Integer> missing = new ArrayList<>();
+        int max = from;
+        lock.readLock().lock();
+        try {
+            for( int rowId: recent ) {
+                max = Math.max( max, rowId );
+                if( !all.contains( rowId ) ){
+                    missing.add( rowId );
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for( int i = 0; i < missing.size(); i += GenericDAL.BATCH_SIZE ) {
+            List<Integer> chunk = missing.subList( i, Math.min( missing.size(), i + GenericDAL.BATCH_SIZE ) );
+            String sql = select() + " WHERE id IN (" + String.join( ", ", Collections.nCopies( chunk.size(), "?" ) ) + ")";
+            try( PreparedStatement statement = connection.prepareStatement( sql ) ) {
+                for( int j = 0; j < chunk.size(); j++ ) {
+                    statement.setInt( j + 1, chunk.get( j ) );
+                }
+                try( ResultSet result = statement.executeQuery() ) {
+                    while( result.next() ){
+                        add( result.getInt( 1 ), read( result ) );
+                    }
+                }
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            watermark = Math.max( watermark, max );
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * index committed entities. does nothing before the index is loaded or while it is first loaded, loading reads
+     * them from the table or replays them. entities without an id, i.e. upserts which did not return one, are read by
+     * a later search if they are new.
+     *
+     * @param entities - entities just inserted or updated
+     */
+    void add( Collection<T> entities ) {
+        for( T entity: entities ) {
+            Integer rowId = id.apply( entity );
+            if( rowId != null ){
+                add( rowId, text.apply( entity ) );
+            }
+        }
+    }
+
+    private void add( int rowId, String value ) {
+        lock.writeLock().lock();
+        try {
+            if( pending != null ){
+                pending.add( new Row( rowId, value ) );
+            }
+            if( postings != null ){
+                index( postings, new LongHashSet(), rowId, value );
+                all.add( rowId );
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ids of rows which may contain search, in ascending order. the index must be loaded, see
+     * {@link #refresh(Connection)}.
+     *
+     * @param search - text to find
+     * @param afterId - only ids greater than this are returned
+     * @param max - maximum number of ids to return
+     * @return candidate ids, empty if there are no more
+     */
+    int[] candidates( String search, int afterId, int max ) {
+        String normal = normalize( search );
+        lock.readLock().lock();
+        try {
+            if( normal.length() < 3 ){
+                //too short for a trigram, every row is a candidate
+                return all.after( afterId, max );
+            }
+            List<Postings> lists = new ArrayList<>();
+            LongHashSet seen = new LongHashSet();
+            for( int i = 0; i + 3 <= normal.length(); i++ ) {
+                long trigram = trigram( normal, i );
+                if( seen.add( trigram ) ){
+                    Postings list = postings.get( trigram );
+                    if( list == null ){
+                        return new int[ 0 ];
+                    }
+                    lists.add( list );
+                }
+            }
+            //walk the rarest trigram and look the rest up
+            lists.sort( ( a, b ) -> Integer.compare( a.size, b.size ) );
+            Postings rarest = lists.get( 0 );
+            int[] found = new int[ Math.min( max, rarest.size ) ];
+            int count = 0;
+            for( int i = rarest.firstAfter( afterId ); i < rarest.size && count < found.length; i++ ) {
+                int candidate = rarest.ids[ i ];
+                boolean inAll = true;
+                for( int j = 1; j < lists.size() && inAll; j++ ) {
+                    inAll = lists.get( j ).contains( candidate );
+                }
+                if( inAll ){
+                    found[ count++ ] = candidate;
+                }
+            }
+            return Arrays.copyOf( found, count );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String select() {
+        return "SELECT id, " + String.join( ", ", textColumns ) + " FROM " + table;
+    }
+
+    private String read( ResultSet result ) throws SQLException {
+        String[] values = new String[ textColumns.size() ];
+        for( int i = 0; i < values.length; i++ ) {
+            values[ i ] = result.getString( i + 2 );
+        }
+        return join( values );
+    }
+
+    /**
+     * @param values - values of text columns, null is skipped
+     * @return values joined with {@link #SEPARATOR}
+     */
+    static String join( String... values ) {
+        StringBuilder builder = new StringBuilder();
+        for( String value: values ) {
+            if( value != null ){
+                builder.append( value ).append( SEPARATOR );
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return number of new postings
+     */
+    private static int index( LongHashMap<Postings> postings, LongHashSet seen, int rowId, String value ) {
+        String normal = normalize( value );
+        int added = 0;
+        for( int i = 0; i + 3 <= normal.length(); i++ ) {
+            long trigram = trigram( normal, i );
+            if( !seen.add( trigram ) ){
+                continue;
+            }
+            Postings list = postings.get( trigram );
+            if( list == null ){
+                list = new Postings();
+                postings.put( trigram, list );
+            }
+            if( list.add( rowId ) ){
+                added++;
+            }
+        }
+        seen.clear();
+        return added;
+    }
+
+    /**
+     * fold text at least as much as utf8mb4_0900_ai_ci compares it: without case, accents and ignored characters, with
+     * ligatures and letters like "&szlig;" and "&aelig;" expanded to "ss" and "ae". so "Stra&szlig;e" and "Caf&eacute;"
+     * are found by "strasse" and "cafe". folding more than the collation only adds candidates which the exact check
+     * drops, folding less would lose matches.
+     */
+    static String normalize( String value ) {
+        if( value == null ){
+            return "";
+        }
+        String folded = IGNORED.matcher( Normalizer.normalize( value, Normalizer.Form.NFKD ) ).replaceAll( "" );
+        //upper case first expands "&szlig;" to "SS"
+        folded = folded.toUpperCase( Locale.ROOT ).toLowerCase( Locale.ROOT );
+        for( String[] letter: LETTERS ) {
+            if( folded.contains( letter[ 0 ] ) ){
+                folded = folded.replace( letter[ 0 ], letter[ 1 ] );
+            }
+        }
+        return folded;
+    }
+
+    private static long trigram( String normal, int start ) {
+        return (long)normal.charAt( start ) << 32 | (long)normal.charAt( start + 1 ) << 16 | normal.charAt( start + 2 );
+    }
+
+    /**
+     * row added while loading.
+     */
+    private static final class Row {
+
+        private final int id;
+        private final String text;
+
+        private Row( int id, String text ) {
+            this.id = id;
+            this.text = text;
+        }
+    }
+
+    /**
+     * sorted ids without duplicates. ids mostly arrive in ascending order and are appended.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[ 2 ];
+        private int size;
+
+        /**
+         * @return true if id was not in the list
+         */
+        boolean add( int id ) {
+            int index;
+            if( size == 0 || id > ids[ size - 1 ] ){
+                index = size;
+            } else {
+                index = Arrays.binarySearch( ids, 0, size, id );
+                if( index >= 0 ){
+                    return false;
+                }
+                index = -index - 1;
+            }
+            if( size == ids.length ){
+                ids = Arrays.copyOf( ids, size + ( size >> 1 ) + 1 );
+            }
+            System.arraycopy( ids, index, ids, index + 1, size - index );
+            ids[ index ] = id;
+            size++;
+            return true;
+        }
+
+        boolean contains( int id ) {
+            return Arrays.binarySearch( ids, 0, size, id ) >= 0;
+        }
+
+        /**
+         * @return index of first id greater than given one
+         */
+        int firstAfter( int id ) {
+            int index = Arrays.binarySearch( ids, 0, size, id );
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        int[] after( int id, int max ) {
+            int from = firstAfter( id );
+            return Arrays.copyOfRange( ids, from, Math.min( size, from + max ) );
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package dal;
+
+import common.Base36;
+import common.BloomFilter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * In memory set of natural keys stored in one table, used to skip rows which are already saved without asking the
+ * DB about each of them.<br>
+ * Keys are kept in a {@link BloomFilter}, a key it rules out is certainly not stored. The few keys it cannot rule out
+ * are confirmed with one SELECT ... IN per {@value GenericDAL#BATCH_SIZE} keys, so answers are always exact.</p>
+ *
+ * <p>
+ * The filter is filled by streaming the key column once, on first use or when {@link #load(Connection)} is called at
+ * startup, and every committed insert through the owning DAL adds its keys. Once more keys than planned are added the
+ * filter is filled again on next use. A new filter is built aside and replaces the old one only when it is full, keys
+ * added meanwhile are put in both, so checks during a reload still see every stored key.</p>
+ *
+ * <p>
+ * Base36 keys, i.e. unique_id, are kept as their long value so checking them hashes 8 bytes instead of a string. A
+ * BIGINT key column is streamed without creating a string per row.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <T> - entity type
+ */
+final class UniqueIdFilter<T> {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    /**
+     * room for growth, a filter is sized for twice the stored rows and at least this many.
+     */
+    private static final long MIN_CAPACITY = 1_000_000;
+
+    private final String table;
+    private final String keyColumn;
+    private final Function<T, String> key;
+    private final AtomicLong added = new AtomicLong();
+    /**
+     * guards swapping filter against adding keys, so no key is added to a filter after it is replaced.
+     */
+    private final Object swap = new Object();
+    private volatile BloomFilter filter;
+    /**
+     * keys added while a reload streams the table, null when no reload runs. guarded by swap.
+     */
+    private List<String> pending;
+    private volatile boolean loaded;
+
+    /**
+     * @param table - name of table
+     * @param keyColumn - natural key column, i.e. unique_id
+     * @param key - value of keyColumn in an entity
+     */
+    UniqueIdFilter( String table, String keyColumn, Function<T, String> key ) {
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.key = key;
+    }
+
+    /**
+     * fill the filter from the key column, unless it is already filled and not over capacity.
+     *
+     * @param connection - connection used to stream the keys
+     * @throws SQLException if reading keys fails
+     */
+    synchronized void load( Connection connection ) throws SQLException {
+        if( loaded && added.get() <= filter.getExpectedInsertions() ){
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized( swap ) {
+            //from now on keys inserted by other threads are kept until the new filter is published
+            pending = new ArrayList<>();
+        }
+        long rows;
+        try( Statement count = connection.createStatement();
+                ResultSet result = count.executeQuery( "SELECT COUNT(*) FROM " + table ) ) {
+            result.next();
+            rows = result.getLong( 1 );
+        } catch( SQLException | RuntimeException ex ) {
+            synchronized( swap ) {
+                pending = null;
+            }
+            throw ex;
+        }
+        //built aside, checks keep using the current filter until this one holds every stored key
+        BloomFilter fresh = new BloomFilter( Math.max( MIN_CAPACITY, rows * 2 ), FALSE_POSITIVE_RATE );
+        KeyColumn column = KeyColumn.of( connection, table, keyColumn );
+        long streamed = 0;
+        try( Statement keys = connection.createStatement( ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY ) ) {
+            //MySQL driver streams rows one by one instead of reading the whole column into memory
+            keys.setFetchSize( Integer.MIN_VALUE );
+            try( ResultSet result = keys.executeQuery( "SELECT " + keyColumn + " FROM " + table ) ) {
+                while( result.next() ){
+                    if( column.isBigint() ){
+                        fresh.put( result.getLong( 1 ) );
+                    } else {
+                        put( fresh, result.getString( 1 ) );
+                    }
+                    streamed++;
+                }
+            }
+        } catch( SQLException | RuntimeException ex ) {
+            synchronized( swap ) {
+                pending = null;
+            }
+            throw ex;
+        }
+        synchronized( swap ) {
+            for( String k: pending ) {
+                put( fresh, k );
+            }
+            added.set( streamed + pending.size() );
+            pending = null;
+            filter = fresh;
+            loaded = true;
+        }
+        Logger.getLogger( UniqueIdFilter.class.getName() ).log( Level.INFO, "loaded {0} keys of {1} in {2}ms, {3} bytes",
+                new Object[]{ streamed, table, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ), fresh.getSizeInBytes() } );
+    }
+
+    /**
+     * remember keys of inserted entities. does nothing before the filter is loaded, loading reads them from the table.
+     *
+     * @param entities - entities whose insert is committed
+     */
+    void add( Collection<T> entities ) {
+        synchronized( swap ) {
+            BloomFilter current = filter;
+            if( current == null && pending == null ){
+                return;
+            }
+            for( T entity: entities ) {
+                String k = key.apply( entity );
+                if( k == null ){
+                    continue;
+                }
+                if( current != null && put( current, k ) ){
+                    added.incrementAndGet();
+                }
+                if( pending != null ){
+                    pending.add( k );
+                }
+            }
+        }
+    }
+
+    /**
+     * @param connection - connection of current transaction, also used to load the filter on first use
+     * @param keys - natural keys to check
+     * @return keys among given ones which are stored
+     * @throws SQLException if loading or confirming fails
+     */
+    Set<String> findStored( Connection connection, Collection<String> keys ) throws SQLException {
+        if( !loaded || added.get() > filter.getExpectedInsertions() ){
+            load( connection );
+        }
+        BloomFilter current = filter;
+        KeyColumn column = KeyColumn.of( connection, table, keyColumn );
+        List<String> candidates = new ArrayList<>();
+        for( String k: keys ) {
+            if( Base36.isValid( k ) ? current.mightContain( Base36.decode( k ) ) : !column.isBigint() && current.mightContain( k ) ){
+                candidates.add( k );
+            }
+        }
+        if( candidates.isEmpty() ){
+            return Collections.emptySet();
+        }
+        Set<String> stored = new HashSet<>();
+        for( int i = 0; i < candidates.size(); i += GenericDAL.BATCH_SIZE ) {
+            confirm( connection, column, candidates.subList( i, Math.min( candidates.size(), i + GenericDAL.BATCH_SIZE ) ), stored );
+        }
+        Logger.getLogger( UniqueIdFilter.class.getName() ).log( Level.FINE, "{0} of {1}: {2} ruled out, {3} confirmed",
+                new Object[]{ keys.size(), table, keys.size() - candidates.size(), stored.size() } );
+        return stored;
+    }
+
+    /**
+     * keys which are not base36, possible in a VARCHAR column, are kept as strings.
+     */
+    private static boolean put( BloomFilter filter, String key ) {
+        return Base36.isValid( key ) ? filter.put( Base36.decode( key ) ) : filter.put( key );
+    }
+
+    private void confirm( Connection connection, KeyColumn column, List<String> candidates, Set<String> stored ) throws SQLException {
+        String params = String.join( ", ", Collections.nCopies( candidates.size(), "?" ) );
+        String sql = "SELECT " + keyColumn + " FROM " + table + " WHERE " + keyColumn + " IN (" + params + ")";
+        try( PreparedStatement statement = connection.prepareStatement( sql ) ) {
+            for( int i = 0; i < candidates.size(); i++ ) {
+                column.bind( statement, i + 1, candidates.get( i ) );
+            }
+            try( ResultSet rows = statement.executeQuery() ) {
+                while( rows.next() ){
+                    stored.add( column.read( rows, 1 ) );
+                }
+            }
+        }
+    }
+}
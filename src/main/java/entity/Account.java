@@ -26,7 +26,8 @@ import javax.validation.constraints.Size;
     @NamedQuery( name = "Account.findByPassword", query = "SELECT a FROM Account a WHERE a.password = :password" ),
     @NamedQuery( name = "Account.findByDisplayname", query = "SELECT a FROM Account a WHERE a.displayname = :displayname" ),
     @NamedQuery( name = "Account.validateUser", query = "SELECT a FROM Account a WHERE a.password = :password and a.username = :username" ),
-    @NamedQuery( name = "Account.findContaining", query = "SELECT a FROM Account a WHERE a.displayname like CONCAT('%', :search, '%') or a.username like CONCAT('%', :search, '%')" )
+    @NamedQuery( name = "Account.findContaining", query = "SELECT a FROM Account a WHERE a.displayname like CONCAT('%', :search, '%') or a.username like CONCAT('%', :search, '%')" ),
+    @NamedQuery( name = "Account.findContainingIn", query = "SELECT a FROM Account a WHERE a.id IN :ids AND ( a.displayname LIKE CONCAT('%', :text, '%') ESCAPE '!' OR a.username LIKE CONCAT('%', :text, '%') ESCAPE '!' ) ORDER BY a.id" )
 } )
 public class Account implements Serializable {
 
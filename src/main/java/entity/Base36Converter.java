@@ -0,0 +1,25 @@
+package entity;
+
+import common.Base36;
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * store a base36 unique_id as BIGINT while the entity keeps its string form. not applied by default, it is enabled
+ * by META-INF/bigint-unique-ids.xml in persistence.xml once the columns are migrated.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+@Converter
+public class Base36Converter implements AttributeConverter<String, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn( String attribute ) {
+        return attribute == null ? null : Base36.decode( attribute );
+    }
+
+    @Override
+    public String convertToEntityAttribute( Long dbData ) {
+        return dbData == null ? null : Base36.encode( dbData );
+    }
+}
@@ -10,6 +10,9 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
@@ -20,15 +23,36 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
 /**
+ * unique_id is the natural key used by upsert and insert if absent in the DAL, it needs a UNIQUE index:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`comment` ADD UNIQUE INDEX `unique_id_UNIQUE` (`unique_id` ASC);
+ * </pre>
+ *
+ * unique_id is a base36 number and can optionally be stored as BIGINT, which makes the column and its index smaller
+ * and comparisons cheaper. migrate the column and then enable META-INF/bigint-unique-ids.xml in persistence.xml,
+ * getter and setter keep the string form:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`comment` ADD COLUMN `unique_key` BIGINT NULL;
+ * UPDATE `redditanalytic`.`comment` SET `unique_key` = CONV(`unique_id`, 36, 10);
+ * ALTER TABLE `redditanalytic`.`comment` DROP INDEX `unique_id_UNIQUE`, DROP COLUMN `unique_id`,
+ *     CHANGE COLUMN `unique_key` `unique_id` BIGINT NOT NULL, ADD UNIQUE INDEX `unique_id_UNIQUE` (`unique_id` ASC);
+ * </pre>
  *
  * @author Shariar
  */
 @Entity
 @Table( name = "comment", catalog = "redditanalytic", schema = "" )
+@NamedEntityGraphs( {
+    @NamedEntityGraph( name = Comment.WITH_POST_AND_AUTHOR, attributeNodes = {
+        @NamedAttributeNode( "postId" ), @NamedAttributeNode( "redditAccountId" ) } ),
+    @NamedEntityGraph( name = Comment.WITH_AUTHOR, attributeNodes = @NamedAttributeNode( "redditAccountId" ) ) } )
 @NamedQueries( {
     @NamedQuery( name = "Comment.findAll", query = "SELECT c FROM Comment c" ),
     @NamedQuery( name = "Comment.findById", query = "SELECT c FROM Comment c WHERE c.id = :id" ),
     @NamedQuery( name = "Comment.findByText", query = "SELECT c FROM Comment c WHERE c.text LIKE CONCAT('%', :text, '%')" ),
+    @NamedQuery( name = "Comment.findByTextIn", query = "SELECT c FROM Comment c WHERE c.id IN :ids AND c.text LIKE CONCAT('%', :text, '%') ESCAPE '!' ORDER BY c.id" ),
     @NamedQuery( name = "Comment.findByCreated", query = "SELECT c FROM Comment c WHERE c.created = :created" ),
     @NamedQuery( name = "Comment.findByPoints", query = "SELECT c FROM Comment c WHERE c.points = :points" ),
     @NamedQuery( name = "Comment.findByReplys", query = "SELECT c FROM Comment c WHERE c.replys = :replys" ),
@@ -36,6 +60,15 @@ import javax.validation.constraints.Size;
     @NamedQuery( name = "Comment.findByIsReply", query = "SELECT c FROM Comment c WHERE c.isReply = :isReply" ) } )
 public class Comment implements Serializable {
 
+    /**
+     * fetch plan loading post and author with the comment.
+     */
+    public static final String WITH_POST_AND_AUTHOR = "Comment.withPostAndAuthor";
+    /**
+     * fetch plan loading author with the comment.
+     */
+    public static final String WITH_AUTHOR = "Comment.withAuthor";
+
     @Basic( optional = false )
     @NotNull
     @Size( min = 1, max = 10 )
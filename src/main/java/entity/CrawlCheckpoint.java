@@ -0,0 +1,155 @@
+package entity;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * newest post seen by the crawler for one subreddit and sort.
+ *
+ * <pre>
+ * CREATE TABLE `redditanalytic`.`crawl_checkpoint` (
+ *   `id` INT NOT NULL AUTO_INCREMENT,
+ *   `subreddit` VARCHAR(100) NOT NULL,
+ *   `sort` VARCHAR(20) NOT NULL,
+ *   `newest_fullname` VARCHAR(20) NOT NULL,
+ *   `newest_created` DATETIME NOT NULL,
+ *   `updated` DATETIME NOT NULL,
+ *   PRIMARY KEY (`id`),
+ *   UNIQUE INDEX `subreddit_sort_UNIQUE` (`subreddit`, `sort`));
+ * </pre>
+ *
+ * @author Shariar
+ */
+@Entity
+@Table( name = "crawl_checkpoint", catalog = "redditanalytic", schema = "" )
+@NamedQueries( {
+    @NamedQuery( name = "CrawlCheckpoint.findAll", query = "SELECT c FROM CrawlCheckpoint c" ),
+    @NamedQuery( name = "CrawlCheckpoint.findById", query = "SELECT c FROM CrawlCheckpoint c WHERE c.id = :id" ),
+    @NamedQuery( name = "CrawlCheckpoint.findBySubredditAndSort", query = "SELECT c FROM CrawlCheckpoint c WHERE c.subreddit = :subreddit AND c.sort = :sort" ) } )
+public class CrawlCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @Id
+    @GeneratedValue( strategy = GenerationType.IDENTITY )
+    @Basic( optional = false )
+    @Column( name = "id" )
+    private Integer id;
+    @Basic( optional = false )
+    @NotNull
+    @Size( min = 1, max = 100 )
+    @Column( name = "subreddit" )
+    private String subreddit;
+    @Basic( optional = false )
+    @NotNull
+    @Size( min = 1, max = 20 )
+    @Column( name = "sort" )
+    private String sort;
+    @Basic( optional = false )
+    @NotNull
+    @Size( min = 1, max = 20 )
+    @Column( name = "newest_fullname" )
+    private String newestFullname;
+    @Basic( optional = false )
+    @NotNull
+    @Column( name = "newest_created" )
+    @Temporal( TemporalType.TIMESTAMP )
+    private Date newestCreated;
+    @Basic( optional = false )
+    @NotNull
+    @Column( name = "updated" )
+    @Temporal( TemporalType.TIMESTAMP )
+    private Date updated;
+
+    public CrawlCheckpoint() {
+    }
+
+    public CrawlCheckpoint( Integer id ) {
+        this.id = id;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId( Integer id ) {
+        this.id = id;
+    }
+
+    public String getSubreddit() {
+        return subreddit;
+    }
+
+    public void setSubreddit( String subreddit ) {
+        this.subreddit = subreddit;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort( String sort ) {
+        this.sort = sort;
+    }
+
+    public String getNewestFullname() {
+        return newestFullname;
+    }
+
+    public void setNewestFullname( String newestFullname ) {
+        this.newestFullname = newestFullname;
+    }
+
+    public Date getNewestCreated() {
+        return newestCreated;
+    }
+
+    public void setNewestCreated( Date newestCreated ) {
+        this.newestCreated = newestCreated;
+    }
+
+    public Date getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated( Date updated ) {
+        this.updated = updated;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        hash += ( id != null ? id.hashCode() : 0 );
+        return hash;
+    }
+
+    @Override
+    public boolean equals( Object object ) {
+        if( this == object ){
+            return true;
+        }
+        if( !( object instanceof CrawlCheckpoint ) ){
+            return false;
+        }
+        //a checkpoint not saved yet has no identity but itself
+        return id != null && id.equals( ( (CrawlCheckpoint)object ).id );
+    }
+
+    @Override
+    public String toString() {
+        return "entity.CrawlCheckpoint[ id=" + id + " ]";
+    }
+
+}
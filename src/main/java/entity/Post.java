@@ -12,6 +12,9 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
@@ -21,16 +24,41 @@ import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 
 /**
+ * unique_id is the natural key used by upsert and insert if absent in the DAL, it needs a UNIQUE index:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`post` ADD UNIQUE INDEX `unique_id_UNIQUE` (`unique_id` ASC);
+ * </pre>
+ *
+ * unique_id is a base36 number and can optionally be stored as BIGINT, which makes the column and its index smaller
+ * and comparisons cheaper. migrate the column and then enable META-INF/bigint-unique-ids.xml in persistence.xml,
+ * getter and setter keep the string form:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`post` ADD COLUMN `unique_key` BIGINT NULL;
+ * UPDATE `redditanalytic`.`post` SET `unique_key` = CONV(`unique_id`, 36, 10);
+ * ALTER TABLE `redditanalytic`.`post` DROP INDEX `unique_id_UNIQUE`, DROP COLUMN `unique_id`,
+ *     CHANGE COLUMN `unique_key` `unique_id` BIGINT NOT NULL, ADD UNIQUE INDEX `unique_id_UNIQUE` (`unique_id` ASC);
+ * </pre>
+ *
+ * author and subreddit are lazy, pass {@link #WITH_AUTHOR_AND_SUBREDDIT} as fetch plan to the DAL to join them into the
+ * same query when they are going to be read.
  *
  * @author Shariar
  */
 @Entity
 @Table( name = "post", catalog = "redditanalytic", schema = "" )
+@NamedEntityGraphs( {
+    @NamedEntityGraph( name = Post.WITH_AUTHOR_AND_SUBREDDIT, attributeNodes = {
+        @NamedAttributeNode( "redditAccountId" ), @NamedAttributeNode( "subredditId" ) } ),
+    @NamedEntityGraph( name = Post.WITH_COMMENTS, attributeNodes = @NamedAttributeNode( "commentList" ) ) } )
 @NamedQueries( {
     @NamedQuery( name = "Post.findAll", query = "SELECT p FROM Post p" ),
     @NamedQuery( name = "Post.findById", query = "SELECT p FROM Post p WHERE p.id = :id" ),
+    @NamedQuery( name = "Post.findAfterId", query = "SELECT p FROM Post p WHERE p.id > :id ORDER BY p.id" ),
     @NamedQuery( name = "Post.findByPoints", query = "SELECT p FROM Post p WHERE p.points = :points" ),
     @NamedQuery( name = "Post.findByCommentCount", query = "SELECT p FROM Post p WHERE p.commentCount = :commentCount" ),
     @NamedQuery( name = "Post.findByTitle", query = "SELECT p FROM Post p WHERE p.title = :title" ),
@@ -39,6 +67,15 @@ import javax.validation.constraints.Size;
     @NamedQuery( name = "Post.findByCreated", query = "SELECT p FROM Post p WHERE p.created = :created" ) } )
 public class Post implements Serializable {
 
+    /**
+     * fetch plan loading author and subreddit with the post.
+     */
+    public static final String WITH_AUTHOR_AND_SUBREDDIT = "Post.withAuthorAndSubreddit";
+    /**
+     * fetch plan loading comments with the post, cannot be used for pages.
+     */
+    public static final String WITH_COMMENTS = "Post.withComments";
+
     @Basic( optional = false )
     @NotNull
     @Size( min = 1, max = 10 )
@@ -75,7 +112,11 @@ public class Post implements Serializable {
     @JoinColumn( name = "subreddit_id", referencedColumnName = "id" )
     @ManyToOne( optional = false, fetch = FetchType.LAZY )
     private Subreddit subredditId;
+    /**
+     * a post has many comments, so fewer posts than hibernate.default_batch_fetch_size keep one IN query small.
+     */
     @OneToMany( cascade = CascadeType.ALL, mappedBy = "postId", fetch = FetchType.LAZY )
+    @BatchSize( size = 20 )
     private List<Comment> commentList;
 
     public Post() {
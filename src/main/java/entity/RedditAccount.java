@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.Date;
 import java.util.List;
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -19,16 +20,41 @@ import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 /**
+ * name is the natural key used by upsert and insert if absent in the DAL, it needs a UNIQUE index:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`reddit_account` ADD UNIQUE INDEX `name_UNIQUE` (`name` ASC);
+ * </pre>
+ *
+ * unique_id is the Reddit id of the account, filled the first time the account is requested. it is nullable since
+ * rows saved before it was added do not have it:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`reddit_account` ADD COLUMN `unique_id` VARCHAR(10) NULL DEFAULT NULL AFTER `id`,
+ *   ADD UNIQUE INDEX `unique_id_UNIQUE` (`unique_id` ASC);
+ * </pre>
+ *
+ * read far more often than written, so it is kept in the second level cache and looked up by name through the
+ * natural id cache, see ehcache.xml for size and time to live.
  *
  * @author Shariar
  */
 @Entity
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.READ_WRITE )
+@NaturalIdCache
 @Table( name = "reddit_account", catalog = "redditanalytic", schema = "" )
 @NamedQueries( {
     @NamedQuery( name = "RedditAccount.findAll", query = "SELECT r FROM RedditAccount r" ),
     @NamedQuery( name = "RedditAccount.findById", query = "SELECT r FROM RedditAccount r WHERE r.id = :id" ),
+    @NamedQuery( name = "RedditAccount.findAfterId", query = "SELECT r FROM RedditAccount r WHERE r.id > :id ORDER BY r.id" ),
+    @NamedQuery( name = "RedditAccount.findByUniqueId", query = "SELECT r FROM RedditAccount r WHERE r.uniqueId = :uniqueId" ),
     @NamedQuery( name = "RedditAccount.findByName", query = "SELECT r FROM RedditAccount r WHERE r.name = :name" ),
     @NamedQuery( name = "RedditAccount.findByLinkPoints", query = "SELECT r FROM RedditAccount r WHERE r.linkPoints = :linkPoints" ),
     @NamedQuery( name = "RedditAccount.findByCommentPoints", query = "SELECT r FROM RedditAccount r WHERE r.commentPoints = :commentPoints" ),
@@ -38,6 +64,7 @@ public class RedditAccount implements Serializable {
     @Basic( optional = false )
     @NotNull
     @Size( min = 1, max = 100 )
+    @NaturalId( mutable = true )
     @Column( name = "name" )
     private String name;
     @Basic( optional = false )
@@ -53,6 +80,9 @@ public class RedditAccount implements Serializable {
     @Column( name = "created" )
     @Temporal( TemporalType.TIMESTAMP )
     private Date created;
+    @Size( max = 10 )
+    @Column( name = "unique_id" )
+    private String uniqueId;
 
     private static final long serialVersionUID = 1L;
     @Id
@@ -145,6 +175,14 @@ public class RedditAccount implements Serializable {
         return "entity.RedditAccount[ id=" + id + " ]";
     }
 
+    public String getUniqueId() {
+        return uniqueId;
+    }
+
+    public void setUniqueId( String uniqueId ) {
+        this.uniqueId = uniqueId;
+    }
+
     public String getName() {
         return name;
     }
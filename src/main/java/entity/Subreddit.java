@@ -3,6 +3,7 @@ package entity;
 import java.io.Serializable;
 import java.util.List;
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -13,27 +14,46 @@ import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.QueryHints;
 
 /**
+ * name is the natural key used by upsert and insert if absent in the DAL, it needs a UNIQUE index:
+ *
+ * <pre>
+ * ALTER TABLE `redditanalytic`.`subreddit` ADD UNIQUE INDEX `name_UNIQUE` (`name` ASC);
+ * </pre>
+ *
+ * read far more often than written, so it is kept in the second level cache and looked up by name through the
+ * natural id cache, see ehcache.xml for size and time to live.
  *
  * @author Shariar
  */
 @Entity
+@Cacheable
+@Cache( usage = CacheConcurrencyStrategy.READ_WRITE )
+@NaturalIdCache
 @Table( name = "subreddit", catalog = "redditanalytic", schema = "" )
 @NamedQueries( {
-    @NamedQuery( name = "Subreddit.findAll", query = "SELECT s FROM Subreddit s" ),
+    @NamedQuery( name = "Subreddit.findAll", query = "SELECT s FROM Subreddit s", hints = @QueryHint( name = QueryHints.HINT_CACHEABLE, value = "true" ) ),
     @NamedQuery( name = "Subreddit.findById", query = "SELECT s FROM Subreddit s WHERE s.id = :id" ),
+    @NamedQuery( name = "Subreddit.findAfterId", query = "SELECT s FROM Subreddit s WHERE s.id > :id ORDER BY s.id" ),
     @NamedQuery( name = "Subreddit.findByName", query = "SELECT s FROM Subreddit s WHERE s.name = :name" ),
-    @NamedQuery( name = "Subreddit.findByUrl", query = "SELECT s FROM Subreddit s WHERE s.url = :url" ),
+    @NamedQuery( name = "Subreddit.findByUrl", query = "SELECT s FROM Subreddit s WHERE s.url = :url", hints = @QueryHint( name = QueryHints.HINT_CACHEABLE, value = "true" ) ),
     @NamedQuery( name = "Subreddit.findBySubscribers", query = "SELECT s FROM Subreddit s WHERE s.subscribers = :subscribers" ) } )
 public class Subreddit implements Serializable {
 
     @Basic( optional = false )
     @NotNull
     @Size( min = 1, max = 100 )
+    @NaturalId( mutable = true )
     @Column( name = "name" )
     private String name;
     @Basic( optional = false )
@@ -0,0 +1,120 @@
+package logic;
+
+import common.ValidationException;
+import dal.CommentDAL;
+import entity.Comment;
+import entity.Post;
+import entity.RedditAccount;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class CommentLogic extends GenericLogic<Comment, CommentDAL> {
+
+    public static final String ID = "id";
+    public static final String REDDIT_ACCOUNT_ID = "reddit_account_id";
+    public static final String POST_ID = "post_id";
+    public static final String UNIQUE_ID = "unique_id";
+    public static final String TEXT = "text";
+    public static final String CREATED = "created";
+    public static final String POINTS = "points";
+    public static final String REPLYS = "replys";
+    public static final String IS_REPLY = "is_reply";
+
+    CommentLogic() {
+        super( new CommentDAL() );
+    }
+
+    @Override
+    public List<Comment> getAll() {
+        return get( () -> dal().findAll() );
+    }
+
+    @Override
+    public Comment getWithId( int id ) {
+        return get( () -> dal().findById( id ) );
+    }
+
+    public Comment getCommentWithUniqueId( String uniqueId ) {
+        return get( () -> dal().findByUniqueId( uniqueId ) );
+    }
+
+    public List<Comment> getCommentsWithText( String text ) {
+        return get( () -> dal().findByText( text ) );
+    }
+
+    public List<Comment> getCommentsWithCreated( Date created ) {
+        return get( () -> dal().findByCreated( created ) );
+    }
+
+    public List<Comment> getCommentsWithPoints( int points ) {
+        return get( () -> dal().findByPoints( points ) );
+    }
+
+    public List<Comment> getCommentsWithReplys( int replys ) {
+        return get( () -> dal().findByReplys( replys ) );
+    }
+
+    public List<Comment> getCommentsWithIsReply( boolean isReply ) {
+        return get( () -> dal().findByIsReply( isReply ) );
+    }
+
+    @Override
+    public Comment createEntity( Map<String, String[]> parameterMap ) {
+        Objects.requireNonNull( parameterMap, "parameterMap cannot be null" );
+
+        Comment entity = new Comment();
+        if( parameterMap.containsKey( ID ) ){
+            try {
+                entity.setId( Integer.parseInt( parameterMap.get( ID )[ 0 ] ) );
+            } catch( NumberFormatException ex ) {
+                throw new ValidationException( ex );
+            }
+        }
+
+        validateString( parameterMap, UNIQUE_ID, 10 );
+        validateString( parameterMap, TEXT, 1000 );
+        validateString( parameterMap, POINTS, 11 );
+        validateString( parameterMap, REPLYS, 11 );
+        validateString( parameterMap, IS_REPLY, 5 );
+        validateString( parameterMap, REDDIT_ACCOUNT_ID, 11 );
+        validateString( parameterMap, POST_ID, 11 );
+
+        try {
+            entity.setPoints( Integer.parseInt( parameterMap.get( POINTS )[ 0 ] ) );
+            entity.setReplys( Integer.parseInt( parameterMap.get( REPLYS )[ 0 ] ) );
+            entity.setRedditAccountId( new RedditAccount( Integer.parseInt( parameterMap.get( REDDIT_ACCOUNT_ID )[ 0 ] ) ) );
+            entity.setPostId( new Post( Integer.parseInt( parameterMap.get( POST_ID )[ 0 ] ) ) );
+        } catch( NumberFormatException ex ) {
+            throw new ValidationException( ex );
+        }
+        entity.setUniqueId( parameterMap.get( UNIQUE_ID )[ 0 ] );
+        entity.setText( parameterMap.get( TEXT )[ 0 ] );
+        entity.setIsReply( Boolean.parseBoolean( parameterMap.get( IS_REPLY )[ 0 ] ) );
+        entity.setCreated( parameterMap.containsKey( CREATED )
+                ? convertStringToDate( parameterMap.get( CREATED )[ 0 ] ) : new Date() );
+        return entity;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return Arrays.asList( "ID", "Reddit Account ID", "Post ID", "Unique ID", "Text", "Created", "Points", "Replys", "Is Reply" );
+    }
+
+    @Override
+    public List<String> getColumnCodes() {
+        return Arrays.asList( ID, REDDIT_ACCOUNT_ID, POST_ID, UNIQUE_ID, TEXT, CREATED, POINTS, REPLYS, IS_REPLY );
+    }
+
+    @Override
+    public List<?> extractDataAsList( Comment e ) {
+        return Arrays.asList( e.getId(), e.getRedditAccountId().getId(), e.getPostId().getId(), e.getUniqueId(),
+                e.getText(), e.getCreated(), e.getPoints(), e.getReplys(), e.getIsReply() );
+    }
+}
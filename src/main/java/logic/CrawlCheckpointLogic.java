@@ -0,0 +1,122 @@
+package logic;
+
+import common.ValidationException;
+import dal.CrawlCheckpointDAL;
+import entity.CrawlCheckpoint;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import reddit.wrapper.CheckpointStore;
+import reddit.wrapper.SubSort;
+
+/**
+ * keeps track of how far each subreddit and sort has been crawled, used as {@link CheckpointStore} by
+ * {@link reddit.wrapper.RedditWrapper}.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class CrawlCheckpointLogic extends GenericLogic<CrawlCheckpoint, CrawlCheckpointDAL> implements CheckpointStore {
+
+    public static final String ID = "id";
+    public static final String SUBREDDIT = "subreddit";
+    public static final String SORT = "sort";
+    public static final String NEWEST_FULLNAME = "newest_fullname";
+    public static final String NEWEST_CREATED = "newest_created";
+    public static final String UPDATED = "updated";
+
+    CrawlCheckpointLogic() {
+        super( new CrawlCheckpointDAL() );
+    }
+
+    @Override
+    public List<CrawlCheckpoint> getAll() {
+        return get( () -> dal().findAll() );
+    }
+
+    @Override
+    public CrawlCheckpoint getWithId( int id ) {
+        return get( () -> dal().findById( id ) );
+    }
+
+    public CrawlCheckpoint getCheckpointFor( String subreddit, SubSort sort ) {
+        return get( () -> dal().findBySubredditAndSort( subreddit, sort.name() ) );
+    }
+
+    @Override
+    public Checkpoint load( String subreddit, SubSort sort ) {
+        CrawlCheckpoint entity = getCheckpointFor( subreddit, sort );
+        if( entity == null ){
+            return null;
+        }
+        return new Checkpoint( entity.getNewestFullname(), entity.getNewestCreated() );
+    }
+
+    @Override
+    public void save( String subreddit, SubSort sort, Checkpoint checkpoint ) {
+        Objects.requireNonNull( checkpoint, "checkpoint cannot be null" );
+        CrawlCheckpoint entity = getCheckpointFor( subreddit, sort );
+        if( entity == null ){
+            entity = new CrawlCheckpoint();
+            entity.setSubreddit( subreddit );
+            entity.setSort( sort.name() );
+        }
+        entity.setNewestFullname( checkpoint.getFullname() );
+        entity.setNewestCreated( checkpoint.getCreated() );
+        entity.setUpdated( new Date() );
+        if( entity.getId() == null ){
+            add( entity );
+        } else {
+            update( entity );
+        }
+    }
+
+    @Override
+    public CrawlCheckpoint createEntity( Map<String, String[]> parameterMap ) {
+        Objects.requireNonNull( parameterMap, "parameterMap cannot be null" );
+
+        CrawlCheckpoint entity = new CrawlCheckpoint();
+        if( parameterMap.containsKey( ID ) ){
+            try {
+                entity.setId( Integer.parseInt( parameterMap.get( ID )[ 0 ] ) );
+            } catch( NumberFormatException ex ) {
+                throw new ValidationException( ex );
+            }
+        }
+
+        validateString( parameterMap, SUBREDDIT, 100 );
+        validateString( parameterMap, SORT, 20 );
+        validateString( parameterMap, NEWEST_FULLNAME, 20 );
+        validateString( parameterMap, NEWEST_CREATED, 45 );
+
+        String sort = parameterMap.get( SORT )[ 0 ];
+        try {
+            SubSort.valueOf( sort );
+        } catch( IllegalArgumentException ex ) {
+            throw new ValidationException( "unknown sort: " + sort, ex );
+        }
+
+        entity.setSubreddit( parameterMap.get( SUBREDDIT )[ 0 ] );
+        entity.setSort( sort );
+        entity.setNewestFullname( parameterMap.get( NEWEST_FULLNAME )[ 0 ] );
+        entity.setNewestCreated( convertStringToDate( parameterMap.get( NEWEST_CREATED )[ 0 ] ) );
+        entity.setUpdated( new Date() );
+        return entity;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return Arrays.asList( "ID", "Subreddit", "Sort", "Newest Fullname", "Newest Created", "Updated" );
+    }
+
+    @Override
+    public List<String> getColumnCodes() {
+        return Arrays.asList( ID, SUBREDDIT, SORT, NEWEST_FULLNAME, NEWEST_CREATED, UPDATED );
+    }
+
+    @Override
+    public List<?> extractDataAsList( CrawlCheckpoint e ) {
+        return Arrays.asList( e.getId(), e.getSubreddit(), e.getSort(), e.getNewestFullname(), e.getNewestCreated(), e.getUpdated() );
+    }
+}
@@ -2,16 +2,24 @@ package logic;
 
 import common.ValidationException;
 import dal.DataAccessLayer;
+import dal.EntityManagerContext;
+import dal.Page;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
+ * logic objects hold no state of their own and their DAL keeps transactions per thread, so one instance of each is
+ * shared by every thread, see {@link LogicFactory}.
  *
  * @author Shariar (Shawn) Emami
  * @param <E> - entity type
@@ -19,7 +27,10 @@ import java.util.logging.Logger;
  */
 abstract class GenericLogic< E, T extends DataAccessLayer<E>> implements Logic<E> {
 
-    private static final SimpleDateFormat FORMATTER = new SimpleDateFormat( "yyyy-MM-dd hh:mm:ss" );
+    /**
+     * SimpleDateFormat is not thread safe and logic objects are shared, so each thread gets its own.
+     */
+    private static final ThreadLocal<SimpleDateFormat> FORMATTER = ThreadLocal.withInitial( () -> new SimpleDateFormat( "yyyy-MM-dd hh:mm:ss" ) );
 
     private final T DAL;
 
@@ -32,40 +43,285 @@ abstract class GenericLogic< E, T extends DataAccessLayer<E>> implements Logic<E
     }
 
     protected <R> R get( Supplier<R> supplier ) {
-        R r;
         DAL.beginTransaction();
-        r = supplier.get();
-        DAL.closeTransaction();
-        return r;
+        try {
+            return supplier.get();
+        } finally {
+            DAL.closeTransaction();
+        }
     }
 
+    /**
+     * when {@link GroupCommitter} is enabled for this logic the write is committed together with writes of other
+     * threads, otherwise in its own transaction. a write inside an active transaction of this thread always joins it.
+     */
     @Override
     public void add( E entity ) {
+        GroupCommitter<E> group = committer();
+        if( group != null ){
+            group.add( entity );
+            return;
+        }
+        inTransaction( () -> {
+            DAL.save( entity );
+            return null;
+        } );
+    }
+
+    /**
+     * add all given entities in one transaction using batched inserts. if any of them fails nothing is added.
+     *
+     * @param entities - new entities to be saved
+     */
+    public void addAll( Collection<E> entities ) {
+        inTransaction( () -> DAL.saveAll( entities ), entities );
+    }
+
+    /**
+     * add entities whose natural key is new and update the ones which exist, in one transaction and one statement per
+     * chunk. ids of all entities are set afterwards.
+     *
+     * @param entities - entities to be saved or updated
+     * @return number of rows inserted or changed
+     */
+    public int upsertAll( Collection<E> entities ) {
+        return inTransaction( () -> DAL.upsertAll( entities ), entities );
+    }
+
+    /**
+     * add entities whose natural key is new and skip the ones which exist, in one transaction and one statement per
+     * chunk. ids of all entities are set afterwards.
+     *
+     * @param entities - entities to be saved
+     * @return number of rows inserted
+     */
+    public int addAllIfAbsent( Collection<E> entities ) {
+        return inTransaction( () -> DAL.insertIfAbsentAll( entities ), entities );
+    }
+
+    /**
+     * add entity unless its natural key exists. the key is looked up first and the insert still skips a row added by
+     * someone else in between, so the row is never duplicated.
+     *
+     * @param entity - entity to be saved
+     * @return true if entity was added, false if it already existed
+     */
+    public boolean addIfAbsent( E entity ) {
+        return addAllIfAbsent( Collections.singletonList( entity ) ) > 0;
+    }
+
+    /**
+     * get one page of rows instead of the whole table, see {@link DataAccessLayer#findPage(String, int, String,
+     * Page.Direction)}.
+     *
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null or empty for first page
+     * @param limit - maximum number of rows in page
+     * @param column - name of entity attribute to order by, i.e. "id"
+     * @param direction - ascending or descending order
+     * @return page of rows with the cursor of next page
+     * @throws ValidationException if column cannot be used for paging or cursor is not valid, i.e. edited by a user
+     */
+    public Page<E> getPage( String afterCursor, int limit, String column, Page.Direction direction ) {
+        return getPage( afterCursor, limit, column, direction, null );
+    }
+
+    /**
+     * {@link #getPage(String, int, String, Page.Direction)} with the associations of given fetch plan loaded in the same
+     * query, i.e. a page of posts with their authors and subreddits.
+     *
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null or empty for first page
+     * @param limit - maximum number of rows in page
+     * @param column - name of entity attribute to order by, i.e. "id"
+     * @param direction - ascending or descending order
+     * @param fetchPlan - named entity graph of the entity, i.e. {@link entity.Post#WITH_AUTHOR_AND_SUBREDDIT}
+     * @return page of rows with the cursor of next page
+     * @throws ValidationException if column cannot be used for paging, cursor is not valid or fetch plan is not valid
+     * for a page
+     */
+    public Page<E> getPage( String afterCursor, int limit, String column, Page.Direction direction, String fetchPlan ) {
+        String cursor = afterCursor == null || afterCursor.isEmpty() ? null : afterCursor;
+        try {
+            return get( () -> DAL.findPage( cursor, limit, column, direction, fetchPlan ) );
+        } catch( IllegalArgumentException ex ) {
+            throw new ValidationException( ex.getMessage(), ex );
+        }
+    }
+
+    /**
+     * @param id - primary key
+     * @param fetchPlan - named entity graph of the entity, i.e. {@link entity.Comment#WITH_POST_AND_AUTHOR}
+     * @return entity with the associations of fetch plan loaded, null if not found
+     */
+    public E getWithId( int id, String fetchPlan ) {
+        return get( () -> DAL.find( id, fetchPlan ) );
+    }
+
+    /**
+     * rows containing given text, one page at a time, found through the in memory search index of the table. see
+     * {@link DataAccessLayer#findContaining(String, String, int)}.
+     *
+     * @param text - text to find
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null or empty for first page
+     * @param limit - maximum number of rows in page
+     * @return page of matching rows ordered by id
+     * @throws ValidationException if text is empty or cursor is not valid
+     * @throws UnsupportedOperationException if the table has no search index
+     */
+    public Page<E> search( String text, String afterCursor, int limit ) {
+        String cursor = afterCursor == null || afterCursor.isEmpty() ? null : afterCursor;
+        try {
+            return get( () -> DAL.findContaining( text, cursor, limit ) );
+        } catch( IllegalArgumentException ex ) {
+            throw new ValidationException( ex.getMessage(), ex );
+        }
+    }
+
+    /**
+     * fill the search index now, i.e. at startup, instead of on first search.
+     */
+    public void loadSearchIndex() {
+        get( () -> {
+            DAL.loadSearchIndex();
+            return null;
+        } );
+    }
+
+    /**
+     * values of {@link #getColumnCodes()} for one page of rows, the same lists {@link #extractDataAsList(Object)} makes
+     * but selected directly by the DB. no entity is loaded, so rows cost no dirty checking and associations show their
+     * id. see {@link DataAccessLayer#findColumns(List, String, int)}.
+     *
+     * @param afterCursor - {@link Page#getNextCursor()} of previous page, null or empty for first page
+     * @param limit - maximum number of rows in page
+     * @return one list of column values per row ordered by id, with the cursor of next page
+     * @throws ValidationException if cursor is not valid, i.e. edited by a user
+     */
+    public Page<List<?>> getRowsPage( String afterCursor, int limit ) {
+        String cursor = afterCursor == null || afterCursor.isEmpty() ? null : afterCursor;
+        try {
+            return get( () -> DAL.findColumns( getColumnCodes(), cursor, limit ) );
+        } catch( IllegalArgumentException ex ) {
+            throw new ValidationException( ex.getMessage(), ex );
+        }
+    }
+
+    /**
+     * walk every row of the table without loading it into memory, i.e. for exports. the stream has its own connection
+     * and must be closed:
+     *
+     * <pre>
+       try( Stream&lt;Post&gt; posts = postLogic.streamAll() ){
+           posts.forEach( ... );
+       }
+     * </pre>
+     *
+     * @return stream of all rows ordered by id
+     */
+    public Stream<E> streamAll() {
+        return DAL.streamAll();
+    }
+
+    /**
+     * find which of given natural keys are already stored. most new keys are ruled out by an in memory filter without
+     * touching the DB, the rest are confirmed in as few queries as possible.
+     *
+     * @param keys - natural keys to check, i.e. unique_id
+     * @return keys which are stored
+     */
+    public Set<String> getStoredKeys( Collection<String> keys ) {
+        if( keys.isEmpty() ){
+            return Collections.emptySet();
+        }
+        return get( () -> DAL.findStoredKeys( keys ) );
+    }
+
+    /**
+     * read all stored natural keys into the in memory filter used by {@link #getStoredKeys(Collection)}, otherwise
+     * it is done on first use.
+     */
+    public void loadStoredKeys() {
+        get( () -> {
+            DAL.loadStoredKeys();
+            return null;
+        } );
+    }
+
+    private int inTransaction( Supplier<Integer> work, Collection<E> entities ) {
+        if( entities.isEmpty() ){
+            return 0;
+        }
+        return inTransaction( work );
+    }
+
+    /**
+     * run work in a transaction which is committed if work succeeds and rolled back if it or the commit fails. the
+     * transaction is closed either way, so a failed write cannot leave the entity manager of the request in a broken
+     * transaction which later calls would join.
+     */
+    /**
+     * the worker of the committer has its own transaction, a write of a thread which is in one must stay in it to be
+     * committed or rolled back with the rest.
+     *
+     * @return committer of this logic or null if not enabled or a transaction is active on this thread
+     */
+    private GroupCommitter<E> committer() {
+        return EntityManagerContext.isTransactionActive() ? null : GroupCommitter.get( getClass() );
+    }
+
+    private <R> R inTransaction( Supplier<R> work ) {
         DAL.beginTransaction();
-        DAL.save( entity );
-        DAL.commitAndCloseTransaction();
+        try {
+            R result = work.get();
+            DAL.commit();
+            return result;
+        } catch( RuntimeException ex ) {
+            DAL.rollback();
+            throw ex;
+        } finally {
+            DAL.closeTransaction();
+        }
     }
 
     @Override
     public void delete( E entity ) {
-        DAL.beginTransaction();
-        DAL.delete( entity );
-        DAL.commitAndCloseTransaction();
+        GroupCommitter<E> group = committer();
+        if( group != null ){
+            group.delete( entity );
+            return;
+        }
+        inTransaction( () -> {
+            DAL.delete( entity );
+            return null;
+        } );
     }
 
     @Override
     public void detach( E entity ) {
-        DAL.beginTransaction();
-        DAL.detach( entity );
-        DAL.commitAndCloseTransaction();
+        inTransaction( () -> {
+            DAL.detach( entity );
+            return null;
+        } );
     }
 
     @Override
     public E update( E entity ) {
-        DAL.beginTransaction();
-        E e = DAL.update( entity );
-        DAL.commitAndCloseTransaction();
-        return e;
+        GroupCommitter<E> group = committer();
+        if( group != null ){
+            return group.update( entity );
+        }
+        return inTransaction( () -> DAL.update( entity ) );
+    }
+
+    /**
+     * update all given entities in one transaction. if any of them fails nothing is changed.
+     *
+     * @param entities - entities to be updated
+     */
+    public void updateAll( Collection<E> entities ) {
+        inTransaction( () -> {
+            entities.forEach( DAL::update );
+            return entities.size();
+        }, entities );
     }
 
     /**
@@ -75,7 +331,7 @@ abstract class GenericLogic< E, T extends DataAccessLayer<E>> implements Logic<E
      * @return
      */
     public String convertDateToString( Date date ) {
-        return FORMATTER.format( date );
+        return FORMATTER.get().format( date );
     }
 
     /**
@@ -86,7 +342,7 @@ abstract class GenericLogic< E, T extends DataAccessLayer<E>> implements Logic<E
      */
     public Date convertStringToDate( String date ) {
         try {
-            return FORMATTER.parse( date );
+            return FORMATTER.get().parse( date );
         } catch( ParseException ex ) {
             Logger.getLogger( GenericLogic.class.getName() ).log( Level.SEVERE, null, ex );
             throw new ValidationException( "failed to format String=\"" + date + "\" to a date object", ex );
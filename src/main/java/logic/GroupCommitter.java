@@ -0,0 +1,400 @@
+package logic;
+
+import dal.DataAccessLayer;
+import dal.EMFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.persistence.CascadeType;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import org.hibernate.Hibernate;
+
+/**
+ * <p>
+ * Opt-in group commit for the writes of one logic class.<br>
+ * When enabled, {@link GenericLogic#add(Object)}, {@link GenericLogic#update(Object)} and
+ * {@link GenericLogic#delete(Object)} of concurrent callers are queued for up to window and committed together in one
+ * transaction on one connection. Every caller still blocks until its own write is committed and gets its own result or
+ * exception, if a group fails it is rolled back and every write in it is committed on its own, with the ids the group
+ * generated for new entities and the new entities they cascade to cleared first.</p>
+ *
+ * <pre>
+   GroupCommitter.enable( "Post", 5, TimeUnit.MILLISECONDS, 100 );
+   ...
+   GroupCommitter.disable( "Post" );
+ * </pre>
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <E> - entity type
+ */
+public final class GroupCommitter<E> implements AutoCloseable {
+
+    private static final Map<Class<?>, GroupCommitter<?>> ENABLED = new ConcurrentHashMap<>();
+
+    private static final class Op<E> {
+
+        private final Function<DataAccessLayer<E>, Object> work;
+        /**
+         * entities without id of an add, the new entity and the new ones it cascades to. ids generated in a failed
+         * group must be cleared before they are saved again.
+         */
+        private final List<Object> unsaved;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Op( Function<DataAccessLayer<E>, Object> work, E added ) {
+            this.work = work;
+            this.unsaved = added == null ? Collections.emptyList() : unsaved( added );
+        }
+    }
+
+    private final DataAccessLayer<E> dal;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final BlockingQueue<Op<E>> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    /**
+     * guards closed against submit, so no write is queued after the worker may have stopped taking them.
+     */
+    private final Object lock = new Object();
+    private volatile boolean closed;
+
+    /**
+     * start grouping writes of given entity.
+     *
+     * @param entityName - name of entity, same as used by {@link LogicFactory#getFor(String)}
+     * @param window - how long the first write of a group waits for others
+     * @param unit - unit of window
+     * @param maxBatch - maximum number of writes in one transaction
+     */
+    public static void enable( String entityName, long window, TimeUnit unit, int maxBatch ) {
+        //the shared logic, its DAL keeps the transaction of the worker thread apart from the callers
+        GenericLogic<?, ?> logic = LogicFactory.getFor( entityName );
+        GroupCommitter<?> old = ENABLED.put( logic.getClass(), new GroupCommitter<>( logic, entityName, unit.toNanos( window ), maxBatch ) );
+        if( old != null ){
+            old.close();
+        }
+    }
+
+    /**
+     * stop grouping writes of given entity, writes already queued are still committed.
+     *
+     * @param entityName - name of entity, same as used by {@link LogicFactory#getFor(String)}
+     */
+    public static void disable( String entityName ) {
+        ENABLED.entrySet().removeIf( entry -> {
+            if( entry.getKey().getSimpleName().equals( entityName + "Logic" ) ){
+                entry.getValue().close();
+                return true;
+            }
+            return false;
+        } );
+    }
+
+    /**
+     * stop grouping writes of every entity.
+     */
+    public static void disableAll() {
+        ENABLED.values().forEach( GroupCommitter::close );
+        ENABLED.clear();
+    }
+
+    /**
+     * @param entityName - name of entity, same as used by {@link LogicFactory#getFor(String)}
+     * @return committer of given entity or null if not enabled
+     */
+    public static GroupCommitter<?> getFor( String entityName ) {
+        return ENABLED.entrySet().stream().filter( entry -> entry.getKey().getSimpleName().equals( entityName + "Logic" ) )
+                .map( Map.Entry::getValue ).findFirst().orElse( null );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    static <E> GroupCommitter<E> get( Class<?> logicClass ) {
+        return (GroupCommitter<E>)ENABLED.get( logicClass );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private GroupCommitter( GenericLogic<?, ?> logic, String entityName, long windowNanos, int maxBatch ) {
+        if( windowNanos < 0 || maxBatch < 1 ){
+            throw new IllegalArgumentException( "window cannot be negative and maxBatch must be positive" );
+        }
+        this.dal = (DataAccessLayer<E>)logic.dal();
+        this.windowNanos = windowNanos;
+        this.maxBatch = maxBatch;
+        worker = new Thread( this::run, "group-commit-" + entityName );
+        worker.setDaemon( true );
+        worker.start();
+    }
+
+    void add( E entity ) {
+        submit( new Op<>( dal -> {
+            dal.save( entity );
+            return null;
+        }, entity ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    E update( E entity ) {
+        return (E)submit( new Op<>( dal -> dal.update( entity ), null ) );
+    }
+
+    void delete( E entity ) {
+        submit( new Op<>( dal -> {
+            dal.delete( entity );
+            return null;
+        }, null ) );
+    }
+
+    private Object submit( Op<E> op ) {
+        synchronized( lock ) {
+            if( closed ){
+                throw new IllegalStateException( "group commit is disabled" );
+            }
+            queue.add( op );
+        }
+        try {
+            return op.result.join();
+        } catch( CompletionException ex ) {
+            if( ex.getCause() instanceof RuntimeException ){
+                throw (RuntimeException)ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private void run() {
+        List<Op<E>> group = new ArrayList<>( maxBatch );
+        try {
+            while( !closed || !queue.isEmpty() ){
+                Op<E> first = queue.poll( 100, TimeUnit.MILLISECONDS );
+                if( first == null ){
+                    continue;
+                }
+                group.add( first );
+                long deadline = System.nanoTime() + windowNanos;
+                while( group.size() < maxBatch ){
+                    Op<E> next = queue.poll( deadline - System.nanoTime(), TimeUnit.NANOSECONDS );
+                    if( next == null ){
+                        break;
+                    }
+                    group.add( next );
+                }
+                commit( group );
+                group.clear();
+            }
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+        } finally {
+            //also when the worker dies of an error, no caller may wait for a write nothing will take
+            synchronized( lock ) {
+                closed = true;
+            }
+            IllegalStateException stopped = new IllegalStateException( "group commit is disabled" );
+            group.forEach( op -> op.result.completeExceptionally( stopped ) );
+            for( Op<E> op; ( op = queue.poll() ) != null; ) {
+                op.result.completeExceptionally( stopped );
+            }
+        }
+    }
+
+    private void commit( List<Op<E>> group ) {
+        groups.increment();
+        writes.add( group.size() );
+        if( group.size() == 1 ){
+            commitAlone( group.get( 0 ) );
+            return;
+        }
+        List<Object> results = new ArrayList<>( group.size() );
+        dal.beginTransaction();
+        try {
+            for( Op<E> op: group ) {
+                results.add( op.work.apply( dal ) );
+            }
+            dal.commit();
+        } catch( RuntimeException ex ) {
+            rollbackQuietly();
+            dal.closeTransaction();
+            Logger.getLogger( GroupCommitter.class.getName() ).log( Level.FINE, "group of " + group.size() + " failed, committing one by one", ex );
+            fallbacks.increment();
+            for( Op<E> op: group ) {
+                op.unsaved.forEach( GroupCommitter::clearGeneratedId );
+                commitAlone( op );
+            }
+            return;
+        }
+        dal.closeTransaction();
+        for( int i = 0; i < group.size(); i++ ) {
+            group.get( i ).result.complete( results.get( i ) );
+        }
+    }
+
+    private void commitAlone( Op<E> op ) {
+        dal.beginTransaction();
+        try {
+            Object result = op.work.apply( dal );
+            dal.commit();
+            op.result.complete( result );
+        } catch( RuntimeException ex ) {
+            rollbackQuietly();
+            op.result.completeExceptionally( ex );
+        } finally {
+            dal.closeTransaction();
+        }
+    }
+
+    /**
+     * transaction is no longer active if commit itself failed.
+     */
+    private void rollbackQuietly() {
+        try {
+            dal.rollback();
+        } catch( RuntimeException ex ) {
+            Logger.getLogger( GroupCommitter.class.getName() ).log( Level.FINEST, "nothing to roll back", ex );
+        }
+    }
+
+    /**
+     * IDENTITY ids are set by persist even if the transaction is rolled back afterwards, such an entity would be
+     * treated as detached when saved again.
+     */
+    private static void clearGeneratedId( Object entity ) {
+        try {
+            idField( entity ).set( entity, null );
+        } catch( IllegalAccessException ex ) {
+            throw new IllegalStateException( "cannot clear id of " + entity, ex );
+        }
+    }
+
+    /**
+     * @param root - entity about to be saved
+     * @return root and every entity reached from it through associations which cascade persist, whose id is not set
+     * yet. these are the entities a save gives a generated id.
+     */
+    private static List<Object> unsaved( Object root ) {
+        List<Object> found = new ArrayList<>();
+        Set<Object> visited = Collections.newSetFromMap( new IdentityHashMap<>() );
+        collectUnsaved( root, found, visited );
+        return found;
+    }
+
+    private static void collectUnsaved( Object entity, List<Object> found, Set<Object> visited ) {
+        if( entity == null || !Hibernate.isInitialized( entity ) || !visited.add( entity ) ){
+            return;
+        }
+        try {
+            if( idField( entity ).get( entity ) != null ){
+                //already stored, persist does not cascade into it
+                return;
+            }
+            found.add( entity );
+            EntityType<?> type = EMFactory.getEMF().getMetamodel().entity( entity.getClass() );
+            for( Attribute<?, ?> attribute: type.getAttributes() ) {
+                if( !attribute.isAssociation() || !cascadesPersist( (Field)attribute.getJavaMember() ) ){
+                    continue;
+                }
+                Field field = (Field)attribute.getJavaMember();
+                field.setAccessible( true );
+                Object value = field.get( entity );
+                if( value instanceof Collection ){
+                    if( Hibernate.isInitialized( value ) ){
+                        for( Object child: (Collection<?>)value ) {
+                            collectUnsaved( child, found, visited );
+                        }
+                    }
+                } else {
+                    collectUnsaved( value, found, visited );
+                }
+            }
+        } catch( IllegalAccessException ex ) {
+            throw new IllegalStateException( "cannot read " + entity, ex );
+        }
+    }
+
+    private static boolean cascadesPersist( Field field ) {
+        CascadeType[] cascade;
+        if( field.isAnnotationPresent( OneToMany.class ) ){
+            cascade = field.getAnnotation( OneToMany.class ).cascade();
+        } else if( field.isAnnotationPresent( ManyToOne.class ) ){
+            cascade = field.getAnnotation( ManyToOne.class ).cascade();
+        } else if( field.isAnnotationPresent( OneToOne.class ) ){
+            cascade = field.getAnnotation( OneToOne.class ).cascade();
+        } else if( field.isAnnotationPresent( ManyToMany.class ) ){
+            cascade = field.getAnnotation( ManyToMany.class ).cascade();
+        } else {
+            return false;
+        }
+        for( CascadeType type: cascade ) {
+            if( type == CascadeType.ALL || type == CascadeType.PERSIST ){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Field idField( Object entity ) {
+        EntityType<?> type = EMFactory.getEMF().getMetamodel().entity( entity.getClass() );
+        Field id = (Field)type.getId( type.getIdType().getJavaType() ).getJavaMember();
+        id.setAccessible( true );
+        return id;
+    }
+
+    /**
+     * @return number of transactions committed or attempted.
+     */
+    public long getGroupCount() {
+        return groups.sum();
+    }
+
+    /**
+     * @return number of writes received.
+     */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /**
+     * @return number of groups which failed and were committed one write at a time.
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * @return writes waiting for the next group.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * stop accepting writes, writes already queued are still committed.
+     */
+    @Override
+    public void close() {
+        synchronized( lock ) {
+            closed = true;
+        }
+    }
+}
@@ -1,28 +1,79 @@
 package logic;
 
-import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 
-//TODO this class is just a skeleton it must be completed
+/**
+ * registry of the shared logic objects. every logic is created once, the first time it is asked for, and the same
+ * instance is returned to every caller and thread afterwards. see {@link GenericLogic}.
+ *
+ * @author Shariar (Shawn) Emami
+ */
 public abstract class LogicFactory {
-    private static final String PACKAGE = "logic.";
+
     private static final String SUFFIX = "Logic";
 
-    public static < T> T getFor( String entityName ) {
-        try {
-            String className = PACKAGE + entityName + SUFFIX;
-            return (T)getFor(Class.forName(className));
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
+    /**
+     * entity name to logic, each created on first use.
+     */
+    private static final Map<String, Lazy<?>> LOGICS = Map.of(
+            "Account", new Lazy<>( AccountLogic::new ),
+            "Comment", new Lazy<>( CommentLogic::new ),
+            "CrawlCheckpoint", new Lazy<>( CrawlCheckpointLogic::new ),
+            "Post", new Lazy<>( PostLogic::new ),
+            "RedditAccount", new Lazy<>( RedditAccountLogic::new ),
+            "Subreddit", new Lazy<>( SubredditLogic::new ) );
+
+    private static final class Lazy<T> {
+
+        private final Supplier<T> factory;
+        private volatile T instance;
+
+        private Lazy( Supplier<T> factory ) {
+            this.factory = factory;
+        }
+
+        private T get() {
+            T result = instance;
+            if( result == null ){
+                synchronized( this ) {
+                    result = instance;
+                    if( result == null ){
+                        instance = result = factory.get();
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @param <T> - logic type
+     * @param entityName - name of entity, i.e. "Post" for {@link PostLogic}
+     * @return shared logic of given entity
+     * @throws IllegalArgumentException if there is no logic for entityName
+     */
+    @SuppressWarnings( "unchecked" )
+    public static <T> T getFor( String entityName ) {
+        Lazy<?> logic = LOGICS.get( Objects.requireNonNull( entityName, "entityName cannot be null" ) );
+        if( logic == null ){
+            throw new IllegalArgumentException( "no logic for entity: " + entityName );
         }
-        return null;
+        return (T)logic.get();
     }
 
-    public static<T> T getFor(Class<T> cType)  {
-        try {
-            return (T) cType.getDeclaredConstructor().newInstance();
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            e.printStackTrace();
+    /**
+     * @param <T> - logic type
+     * @param cType - logic class, i.e. PostLogic.class
+     * @return shared logic of given class
+     * @throws IllegalArgumentException if cType is not a registered logic
+     */
+    public static <T> T getFor( Class<T> cType ) {
+        String name = cType.getSimpleName();
+        if( !name.endsWith( SUFFIX ) ){
+            throw new IllegalArgumentException( "not a logic class: " + cType.getName() );
         }
-        return null;
+        return cType.cast( getFor( name.substring( 0, name.length() - SUFFIX.length() ) ) );
     }
 }
@@ -47,6 +47,10 @@ public class PostLogic extends GenericLogic<Post, PostDAL> {
         return get( () -> dal().findById( id ) );
     }
 
+    public List<Post> getPostsAfterId( int id, int max ) {
+        return get( () -> dal().findAfterId( id, max ) );
+    }
+
     public Post getPostWithUniqueId(String uniqueId) {
         return get( () -> dal().findByUniqueId( uniqueId ));
     }
@@ -173,6 +177,6 @@ public class PostLogic extends GenericLogic<Post, PostDAL> {
      */
     @Override
     public List<?> extractDataAsList( Post e ) {
-        return Arrays.asList( e.getId(), e.getRedditAccountId(),e.getSubredditId(),e.getUniqueID(),e.getPoints(),e.getCommentCount(), e.getTitle(), e.getCreated());
+        return Arrays.asList( e.getId(), e.getRedditAccountId().getId(), e.getSubredditId().getId(), e.getUniqueID(),e.getPoints(),e.getCommentCount(), e.getTitle(), e.getCreated());
     }
 }
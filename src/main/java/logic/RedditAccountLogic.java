@@ -0,0 +1,130 @@
+package logic;
+
+import common.ValidationException;
+import dal.RedditAccountDAL;
+import entity.RedditAccount;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import reddit.wrapper.AccountWrapper;
+
+/**
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class RedditAccountLogic extends GenericLogic<RedditAccount, RedditAccountDAL> {
+
+    public static final String ID = "id";
+    public static final String UNIQUE_ID = "unique_id";
+    public static final String NAME = "name";
+    public static final String LINK_POINTS = "link_points";
+    public static final String COMMENT_POINTS = "comment_points";
+    public static final String CREATED = "created";
+
+    RedditAccountLogic() {
+        super( new RedditAccountDAL() );
+    }
+
+    @Override
+    public List<RedditAccount> getAll() {
+        return get( () -> dal().findAll() );
+    }
+
+    @Override
+    public RedditAccount getWithId( int id ) {
+        return get( () -> dal().findById( id ) );
+    }
+
+    public List<RedditAccount> getRedditAccountsAfterId( int id, int max ) {
+        return get( () -> dal().findAfterId( id, max ) );
+    }
+
+    public RedditAccount getRedditAccountWithUniqueId( String uniqueId ) {
+        return get( () -> dal().findByUniqueId( uniqueId ) );
+    }
+
+    public RedditAccount getRedditAccountWithName( String name ) {
+        return get( () -> dal().findByName( name ) );
+    }
+
+    public List<RedditAccount> getRedditAccountsWithLinkPoints( int linkPoints ) {
+        return get( () -> dal().findByLinkPoints( linkPoints ) );
+    }
+
+    public List<RedditAccount> getRedditAccountsWithCommentPoints( int commentPoints ) {
+        return get( () -> dal().findByCommentPoints( commentPoints ) );
+    }
+
+    /**
+     * copy the values of an account returned by {@link reddit.wrapper.RedditWrapper} into an entity.
+     *
+     * @param entity - existing entity to update, or a new one
+     * @param account - account as returned by Reddit
+     * @return true if any value of entity was changed
+     */
+    public boolean copy( RedditAccount entity, AccountWrapper account ) {
+        boolean changed = entity.getLinkPoints() != account.getLinkKarma()
+                || entity.getCommentPoints() != account.getCommentKarma()
+                || ( account.getUniqueID() != null && !account.getUniqueID().equals( entity.getUniqueId() ) );
+        entity.setName( account.getName() );
+        entity.setLinkPoints( account.getLinkKarma() );
+        entity.setCommentPoints( account.getCommentKarma() );
+        if( account.getUniqueID() != null ){
+            entity.setUniqueId( account.getUniqueID() );
+        }
+        if( entity.getCreated() == null ){
+            entity.setCreated( account.getCreated() != null ? account.getCreated() : new Date() );
+        }
+        return changed;
+    }
+
+    @Override
+    public RedditAccount createEntity( Map<String, String[]> parameterMap ) {
+        Objects.requireNonNull( parameterMap, "parameterMap cannot be null" );
+
+        RedditAccount entity = new RedditAccount();
+        if( parameterMap.containsKey( ID ) ){
+            try {
+                entity.setId( Integer.parseInt( parameterMap.get( ID )[ 0 ] ) );
+            } catch( NumberFormatException ex ) {
+                throw new ValidationException( ex );
+            }
+        }
+
+        validateString( parameterMap, NAME, 100 );
+        validateString( parameterMap, LINK_POINTS, 11 );
+        validateString( parameterMap, COMMENT_POINTS, 11 );
+        validateString( parameterMap, CREATED, 45 );
+
+        try {
+            entity.setLinkPoints( Integer.parseInt( parameterMap.get( LINK_POINTS )[ 0 ] ) );
+            entity.setCommentPoints( Integer.parseInt( parameterMap.get( COMMENT_POINTS )[ 0 ] ) );
+        } catch( NumberFormatException ex ) {
+            throw new ValidationException( ex );
+        }
+        if( parameterMap.containsKey( UNIQUE_ID ) ){
+            validateString( parameterMap, UNIQUE_ID, 10 );
+            entity.setUniqueId( parameterMap.get( UNIQUE_ID )[ 0 ] );
+        }
+        entity.setName( parameterMap.get( NAME )[ 0 ] );
+        entity.setCreated( convertStringToDate( parameterMap.get( CREATED )[ 0 ] ) );
+        return entity;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return Arrays.asList( "ID", "Unique ID", "Name", "Link Points", "Comment Points", "Created" );
+    }
+
+    @Override
+    public List<String> getColumnCodes() {
+        return Arrays.asList( ID, UNIQUE_ID, NAME, LINK_POINTS, COMMENT_POINTS, CREATED );
+    }
+
+    @Override
+    public List<?> extractDataAsList( RedditAccount e ) {
+        return Arrays.asList( e.getId(), e.getUniqueId(), e.getName(), e.getLinkPoints(), e.getCommentPoints(), e.getCreated() );
+    }
+}
@@ -42,6 +42,10 @@ public class SubredditLogic extends GenericLogic<Subreddit, SubredditDAL> {
         return get( () -> dal().findById( id ) );
     }
 
+    public List<Subreddit> getSubredditsAfterId( int id, int max ) {
+        return get( () -> dal().findAfterId( id, max ) );
+    }
+
     public Subreddit getSubredditWithName( String name ) {
         return get( () -> dal().findByName(name));
     }
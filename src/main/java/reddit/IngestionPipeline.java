@@ -0,0 +1,452 @@
+package reddit;
+
+import common.Base36;
+import common.LongHashMap;
+import common.LongHashSet;
+import dal.EntityManagerContext;
+import entity.Comment;
+import entity.Post;
+import entity.RedditAccount;
+import entity.Subreddit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import logic.CommentLogic;
+import logic.LogicFactory;
+import logic.PostLogic;
+import logic.RedditAccountLogic;
+import logic.SubredditLogic;
+import reddit.wrapper.AccountWrapper;
+import reddit.wrapper.CommentSort;
+import reddit.wrapper.CommentWrapper;
+import reddit.wrapper.PostWrapper;
+import reddit.wrapper.SubredditWrapper;
+
+/**
+ * <p>
+ * Move posts and their comments from {@link reddit.wrapper.RedditWrapper} into the database.<br>
+ * Work is split in four stages, each on its own thread and connected by bounded queues, so a slow stage makes the
+ * ones before it wait instead of filling memory:</p>
+ * <ol>
+ * <li>fetch - read posts from the source and download their comments</li>
+ * <li>map - convert wrappers to {@link Post}, {@link Comment}, {@link RedditAccount} and {@link Subreddit}</li>
+ * <li>dedupe - drop rows already seen in this run or already stored and share one entity per account and
+ * subreddit</li>
+ * <li>write - upsert up to batchSize posts with their comments, accounts and subreddits in one transaction</li>
+ * </ol>
+ *
+ * <pre>
+   IngestionPipeline pipeline = new IngestionPipeline( 64, 50 ).withComments( 2, 100, CommentSort.CONFIDENCE );
+   try( PostStream posts = scrap.configureCurentSubreddit( "java", 25, SubSort.NEW ).streamPosts( 2, 10 ) ){
+       pipeline.run( posts );
+   }
+   pipeline.getStages().forEach( System.out::println );
+ * </pre>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class IngestionPipeline {
+
+    /**
+     * marks the end of input in every queue.
+     */
+    private static final Object END = new Object();
+
+    private static final int TEXT_LENGTH = 1000;
+    private static final int TITLE_LENGTH = 255;
+
+    /**
+     * output of fetch stage.
+     */
+    private static final class Fetched {
+
+        private final PostWrapper post;
+        private final List<CommentWrapper> comments;
+
+        private Fetched( PostWrapper post, List<CommentWrapper> comments ) {
+            this.post = post;
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * output of map and dedupe stages. after dedupe only new rows are left, post is null if it was already saved.
+     */
+    private static final class Mapped {
+
+        private Post post;
+        private List<Comment> comments;
+        private final List<RedditAccount> newAccounts = new ArrayList<>();
+        private final List<Subreddit> newSubreddits = new ArrayList<>();
+    }
+
+    private final int batchSize;
+    private final BlockingQueue<Object> fetched;
+    private final BlockingQueue<Object> mapped;
+    private final BlockingQueue<Object> deduped;
+    private final StageStats fetchStats;
+    private final StageStats mapStats;
+    private final StageStats dedupeStats;
+    private final StageStats writeStats;
+    /**
+     * units whose batch is committed, handed from write to dedupe stage which only then marks their rows as seen.
+     */
+    private final Queue<Mapped> written = new ConcurrentLinkedQueue<>();
+
+    private int replyDepth;
+    private int commentLimit;
+    private CommentSort commentSort;
+    private boolean skipStored = true;
+
+    /**
+     * @param queueCapacity - maximum number of posts waiting between two stages
+     * @param batchSize - maximum number of posts saved in one transaction
+     */
+    public IngestionPipeline( int queueCapacity, int batchSize ) {
+        if( queueCapacity < 1 || batchSize < 1 ){
+            throw new IllegalArgumentException( "queueCapacity and batchSize must be positive" );
+        }
+        this.batchSize = batchSize;
+        fetched = new ArrayBlockingQueue<>( queueCapacity );
+        mapped = new ArrayBlockingQueue<>( queueCapacity );
+        deduped = new ArrayBlockingQueue<>( queueCapacity );
+        fetchStats = new StageStats( "fetch", null );
+        mapStats = new StageStats( "map", fetched );
+        dedupeStats = new StageStats( "dedupe", mapped );
+        writeStats = new StageStats( "write", deduped );
+    }
+
+    /**
+     * also download and save comments of every post, by default only posts are saved.
+     *
+     * @param replyDepth - number of reply depths for each comment to be loaded.
+     * @param totalCountLimit - total number of comments to read per post.
+     * @param sort - order in which to sort the comments.
+     *
+     * @return current object of pipeline, this
+     */
+    public IngestionPipeline withComments( int replyDepth, int totalCountLimit, CommentSort sort ) {
+        this.replyDepth = replyDepth;
+        this.commentLimit = totalCountLimit;
+        this.commentSort = Objects.requireNonNull( sort, "sort cannot be null" );
+        return this;
+    }
+
+    /**
+     * by default posts and comments which are already stored are skipped, so their points are not refreshed. use
+     * {@link ScoreRefresher} for that, or pass false to upsert every row.
+     *
+     * @param skip - false to write stored rows again
+     *
+     * @return current object of pipeline, this
+     */
+    public IngestionPipeline skipStored( boolean skip ) {
+        this.skipStored = skip;
+        return this;
+    }
+
+    /**
+     * @return statistics of each stage in pipeline order, can be read while {@link #run(Iterator)} is running.
+     */
+    public List<StageStats> getStages() {
+        return Arrays.asList( fetchStats, mapStats, dedupeStats, writeStats );
+    }
+
+    /**
+     * run all stages until source is exhausted and everything is written. a pipeline can only be run once.
+     *
+     * @param source - posts to save, i.e. {@link reddit.wrapper.PostStream}
+     *
+     * @throws InterruptedException if interrupted while waiting for stages
+     */
+    public void run( Iterator<PostWrapper> source ) throws InterruptedException {
+        Objects.requireNonNull( source, "source cannot be null" );
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add( stage( "fetch", fetchStats, failure, threads, () -> fetch( source ) ) );
+        threads.add( stage( "map", mapStats, failure, threads, this::map ) );
+        threads.add( stage( "dedupe", dedupeStats, failure, threads, this::dedupe ) );
+        threads.add( stage( "write", writeStats, failure, threads, this::write ) );
+        threads.forEach( Thread::start );
+        try {
+            for( Thread t: threads ) {
+                t.join();
+            }
+        } finally {
+            threads.forEach( Thread::interrupt );
+        }
+        if( failure.get() != null ){
+            throw failure.get();
+        }
+    }
+
+    private interface Body {
+
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * first failing stage stops every other stage, queues are not drained.
+     */
+    private Thread stage( String name, StageStats stats, AtomicReference<RuntimeException> failure, List<Thread> threads, Body body ) {
+        Thread t = new Thread( () -> {
+            stats.start();
+            try {
+                body.run();
+            } catch( InterruptedException ex ) {
+                Thread.currentThread().interrupt();
+            } catch( RuntimeException ex ) {
+                Logger.getLogger( IngestionPipeline.class.getName() ).log( Level.SEVERE, name + " stage failed", ex );
+                if( failure.compareAndSet( null, ex ) ){
+                    threads.stream().filter( other -> other != Thread.currentThread() ).forEach( Thread::interrupt );
+                }
+            } finally {
+                stats.finish();
+            }
+        }, "ingest-" + name );
+        t.setDaemon( true );
+        return t;
+    }
+
+    private Object take( BlockingQueue<Object> queue, StageStats stats ) throws InterruptedException {
+        long start = System.nanoTime();
+        Object item = queue.take();
+        stats.addStarved( System.nanoTime() - start );
+        return item;
+    }
+
+    private void put( BlockingQueue<Object> queue, Object item, StageStats stats ) throws InterruptedException {
+        long start = System.nanoTime();
+        queue.put( item );
+        stats.addBlocked( System.nanoTime() - start );
+    }
+
+    private void fetch( Iterator<PostWrapper> source ) throws InterruptedException {
+        while( source.hasNext() && !Thread.currentThread().isInterrupted() ){
+            PostWrapper post = source.next();
+            List<CommentWrapper> comments = Collections.emptyList();
+            if( commentSort != null ){
+                List<CommentWrapper> all = new ArrayList<>();
+                post.configComments( replyDepth, commentLimit, commentSort ).processComments( comment -> {
+                    //depth 0 is the post itself
+                    if( comment.getDepth() > 0 ){
+                        all.add( comment );
+                    }
+                } );
+                comments = all;
+            }
+            fetchStats.addProcessed( 1 );
+            put( fetched, new Fetched( post, comments ), fetchStats );
+        }
+        put( fetched, END, fetchStats );
+    }
+
+    private void map() throws InterruptedException {
+        Object item;
+        while( ( item = take( fetched, mapStats ) ) != END ){
+            Fetched in = (Fetched)item;
+            Mapped out = new Mapped();
+            out.post = toPost( in.post );
+            out.comments = new ArrayList<>( in.comments.size() );
+            for( CommentWrapper comment: in.comments ) {
+                out.comments.add( toComment( comment, out.post ) );
+            }
+            mapStats.addProcessed( 1 );
+            put( mapped, out, mapStats );
+        }
+        put( mapped, END, mapStats );
+    }
+
+    /**
+     * only this thread touches the maps below, so they need no locking. rows stored by earlier runs are found through
+     * the in memory sets of stored unique_ids, so new rows cost no query. a stored post is only written again if it
+     * has new comments, they need its id. posts and comments of this run are only seen once their batch is committed,
+     * a row which arrives again while its batch is still being written is upserted twice, which is harmless.
+     */
+    private void dedupe() throws InterruptedException {
+        PostLogic postLogic = LogicFactory.getFor( "Post" );
+        CommentLogic commentLogic = LogicFactory.getFor( "Comment" );
+        Map<String, RedditAccount> accounts = new HashMap<>();
+        Map<String, Subreddit> subreddits = new HashMap<>();
+        //reddit ids are base36, keyed by their long value to avoid a string hash and a boxed key per row
+        LongHashMap<Post> posts = new LongHashMap<>();
+        LongHashSet comments = new LongHashSet();
+        Object item;
+        while( ( item = take( mapped, dedupeStats ) ) != END ){
+            markWritten( posts, comments );
+            Mapped unit = (Mapped)item;
+            Post post = unit.post;
+            List<Comment> fresh = new ArrayList<>( unit.comments.size() );
+            for( Comment comment: unit.comments ) {
+                if( !comments.contains( Base36.decode( comment.getUniqueId() ) ) ){
+                    fresh.add( comment );
+                }
+            }
+            long postKey = Base36.decode( post.getUniqueID() );
+            Post known = posts.get( postKey );
+            boolean postStored = false;
+            if( skipStored ){
+                Set<String> stored = commentLogic.getStoredKeys( fresh.stream().map( Comment::getUniqueId ).collect( Collectors.toList() ) );
+                fresh.removeIf( comment -> stored.contains( comment.getUniqueId() ) );
+                stored.forEach( id -> comments.add( Base36.decode( id ) ) );
+                postStored = known == null && !postLogic.getStoredKeys( Collections.singleton( post.getUniqueID() ) ).isEmpty();
+            }
+            dedupeStats.addProcessed( 1 );
+            if( postStored && fresh.isEmpty() ){
+                //nothing new, accounts and subreddit are not registered either since nothing would write them
+                continue;
+            }
+            if( known == null ){
+                known = post;
+                post.setRedditAccountId( canonical( accounts, post.getRedditAccountId(), unit.newAccounts, RedditAccount::getName ) );
+                post.setSubredditId( canonical( subreddits, post.getSubredditId(), unit.newSubreddits, Subreddit::getName ) );
+            } else {
+                //post is already written in this run, its comments may still be new
+                unit.post = null;
+            }
+            for( Comment comment: fresh ) {
+                comment.setPostId( known );
+                comment.setRedditAccountId( canonical( accounts, comment.getRedditAccountId(), unit.newAccounts, RedditAccount::getName ) );
+            }
+            unit.comments = fresh;
+            if( unit.post != null || !fresh.isEmpty() ){
+                put( deduped, unit, dedupeStats );
+            }
+        }
+        put( deduped, END, dedupeStats );
+    }
+
+    /**
+     * move posts and comments of committed batches to the sets of seen rows, a post keeps its id for later comments.
+     */
+    private void markWritten( LongHashMap<Post> posts, LongHashSet comments ) {
+        Mapped unit;
+        while( ( unit = written.poll() ) != null ){
+            if( unit.post != null ){
+                posts.put( Base36.decode( unit.post.getUniqueID() ), unit.post );
+            }
+            for( Comment comment: unit.comments ) {
+                comments.add( Base36.decode( comment.getUniqueId() ) );
+            }
+        }
+    }
+
+    /**
+     * first entity seen with a name is used by every later post and comment, it is written with the first unit.
+     */
+    private static <T> T canonical( Map<String, T> known, T entity, List<T> added, Function<T, String> name ) {
+        T first = known.putIfAbsent( name.apply( entity ), entity );
+        if( first == null ){
+            added.add( entity );
+            return entity;
+        }
+        return first;
+    }
+
+    /**
+     * new accounts and subreddits are saved first so posts and comments of the same batch can refer to them. the whole
+     * batch is one transaction, a failure leaves none of it stored and none of its rows marked as seen.
+     */
+    private void write() throws InterruptedException {
+        PostLogic postLogic = LogicFactory.getFor( "Post" );
+        CommentLogic commentLogic = LogicFactory.getFor( "Comment" );
+        RedditAccountLogic accountLogic = LogicFactory.getFor( "RedditAccount" );
+        SubredditLogic subredditLogic = LogicFactory.getFor( "Subreddit" );
+        List<Object> batch = new ArrayList<>( batchSize );
+        boolean done = false;
+        while( !done ){
+            batch.add( take( deduped, writeStats ) );
+            deduped.drainTo( batch, batchSize - 1 );
+            done = batch.remove( END );
+            List<Subreddit> subreddits = new ArrayList<>();
+            List<RedditAccount> accounts = new ArrayList<>();
+            List<Post> posts = new ArrayList<>();
+            List<Comment> comments = new ArrayList<>();
+            for( Object item: batch ) {
+                Mapped unit = (Mapped)item;
+                subreddits.addAll( unit.newSubreddits );
+                accounts.addAll( unit.newAccounts );
+                if( unit.post != null ){
+                    posts.add( unit.post );
+                }
+                comments.addAll( unit.comments );
+            }
+            //upsert by natural key, stored rows which were not skipped are refreshed and give their ids to new rows
+            EntityManagerContext.inTransaction( () -> {
+                subredditLogic.upsertAll( subreddits );
+                accountLogic.upsertAll( accounts );
+                postLogic.upsertAll( posts );
+                commentLogic.upsertAll( comments );
+            } );
+            for( Object item: batch ) {
+                written.add( (Mapped)item );
+            }
+            writeStats.addProcessed( batch.size() );
+            batch.clear();
+        }
+    }
+
+    private static Post toPost( PostWrapper wrapper ) {
+        Post post = new Post();
+        post.setUniqueId( wrapper.getUniqueID() );
+        post.setTitle( truncate( wrapper.getTitle(), TITLE_LENGTH ) );
+        post.setPoints( wrapper.getVoteCount() );
+        post.setCommentCount( wrapper.getCommentCount() );
+        post.setCreated( wrapper.getCreated() );
+        post.setRedditAccountId( toAccount( wrapper.getAuthor() ) );
+        SubredditWrapper sub = wrapper.getSubreddit();
+        Subreddit subreddit = new Subreddit();
+        subreddit.setName( sub.getName() );
+        subreddit.setUrl( sub.getReletiveUrl() );
+        subreddit.setSubscribers( sub.getSubscribers() );
+        post.setSubredditId( subreddit );
+        return post;
+    }
+
+    private static Comment toComment( CommentWrapper wrapper, Post post ) {
+        Comment comment = new Comment();
+        comment.setUniqueId( wrapper.getUniqueID() );
+        comment.setText( truncate( wrapper.getText(), TEXT_LENGTH ) );
+        comment.setCreated( wrapper.getCreated() );
+        comment.setPoints( wrapper.getVotes() );
+        comment.setReplys( wrapper.getReplyCount() );
+        comment.setIsReply( !wrapper.isParrent() );
+        comment.setPostId( post );
+        comment.setRedditAccountId( toAccount( wrapper.getAuthor() ) );
+        return comment;
+    }
+
+    private static RedditAccount toAccount( AccountWrapper wrapper ) {
+        RedditAccount account = new RedditAccount();
+        account.setUniqueId( wrapper.getUniqueID() );
+        account.setName( wrapper.getName() );
+        account.setLinkPoints( wrapper.getLinkKarma() );
+        account.setCommentPoints( wrapper.getCommentKarma() );
+        account.setCreated( wrapper.getCreated() != null ? wrapper.getCreated() : new Date() );
+        return account;
+    }
+
+    private static String truncate( String value, int length ) {
+        if( value == null || value.isEmpty() ){
+            //column does not allow empty values, i.e. a comment with only an image
+            return " ";
+        }
+        return value.length() > length ? value.substring( 0, length ) : value;
+    }
+}
@@ -0,0 +1,154 @@
+package reddit;
+
+import entity.Post;
+import entity.RedditAccount;
+import entity.Subreddit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import logic.LogicFactory;
+import logic.PostLogic;
+import logic.RedditAccountLogic;
+import logic.SubredditLogic;
+import reddit.wrapper.AccountWrapper;
+import reddit.wrapper.RedditWrapper;
+
+/**
+ * <p>
+ * Bring points and comment count of stored posts, karma of stored accounts and subscriber count of stored subreddits
+ * up to date.<br>
+ * Stored rows are read in chunks of {@link RedditWrapper#INFO_BATCH_SIZE}, each chunk costs one batch request
+ * and only the rows whose values changed are written back, in one transaction per chunk.</p>
+ *
+ * <pre>
+   ScoreRefresher refresher = new ScoreRefresher( scrap );
+   refresher.refreshPosts();
+   refresher.refreshAccounts();
+   refresher.refreshSubreddits();
+ * </pre>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class ScoreRefresher {
+
+    private final RedditWrapper reddit;
+    private final PostLogic postLogic;
+    private final SubredditLogic subredditLogic;
+    private final RedditAccountLogic accountLogic;
+
+    /**
+     * @param reddit - authenticated wrapper used to send /api/info requests
+     */
+    public ScoreRefresher( RedditWrapper reddit ) {
+        this.reddit = Objects.requireNonNull( reddit, "reddit cannot be null" );
+        postLogic = LogicFactory.getFor( "Post" );
+        subredditLogic = LogicFactory.getFor( "Subreddit" );
+        accountLogic = LogicFactory.getFor( "RedditAccount" );
+    }
+
+    /**
+     * refresh points and comment count of every stored post.
+     *
+     * @return number of posts which were changed
+     */
+    public int refreshPosts() {
+        int changed = 0;
+        int lastId = 0;
+        List<Post> posts;
+        while( !( posts = postLogic.getPostsAfterId( lastId, RedditWrapper.INFO_BATCH_SIZE ) ).isEmpty() ){
+            lastId = posts.get( posts.size() - 1 ).getId();
+            Map<String, Post> stored = new HashMap<>();
+            posts.forEach( post -> stored.put( post.getUniqueID(), post ) );
+            List<Post> updates = new ArrayList<>();
+            reddit.lookupPosts( stored.keySet(), fresh -> {
+                Post post = stored.get( fresh.getUniqueID() );
+                if( post != null
+                        && ( post.getPoints() != fresh.getVoteCount() || post.getCommentCount() != fresh.getCommentCount() ) ){
+                    post.setPoints( fresh.getVoteCount() );
+                    post.setCommentCount( fresh.getCommentCount() );
+                    updates.add( post );
+                }
+            } );
+            postLogic.updateAll( updates );
+            changed += updates.size();
+        }
+        Logger.getLogger( ScoreRefresher.class.getName() ).log( Level.INFO, "refreshed posts, {0} changed", changed );
+        return changed;
+    }
+
+    /**
+     * refresh link and comment points of every stored account. accounts with a known unique_id are requested
+     * {@link RedditWrapper#INFO_BATCH_SIZE} at a time. accounts saved before unique_id existed are requested one by
+     * one, once, which also fills their unique_id so the next cycle can batch them. refreshed accounts stay in the
+     * account cache of reddit, so authors of newly ingested posts and comments are not requested again.
+     *
+     * @return number of accounts which were changed
+     */
+    public int refreshAccounts() {
+        int changed = 0;
+        int lastId = 0;
+        List<RedditAccount> accounts;
+        while( !( accounts = accountLogic.getRedditAccountsAfterId( lastId, RedditWrapper.INFO_BATCH_SIZE ) ).isEmpty() ){
+            lastId = accounts.get( accounts.size() - 1 ).getId();
+            Map<String, RedditAccount> stored = new HashMap<>();
+            List<RedditAccount> unknown = new ArrayList<>();
+            for( RedditAccount account: accounts ) {
+                if( account.getUniqueId() == null ){
+                    unknown.add( account );
+                } else {
+                    stored.put( account.getUniqueId(), account );
+                }
+            }
+            List<RedditAccount> updates = new ArrayList<>();
+            reddit.getAccountsFor( stored.keySet() ).forEach( ( id, fresh ) -> {
+                RedditAccount account = stored.get( id );
+                if( account != null && accountLogic.copy( account, fresh ) ){
+                    updates.add( account );
+                }
+            } );
+            for( RedditAccount account: unknown ) {
+                AccountWrapper fresh = reddit.getAccountFor( account.getName() );
+                if( accountLogic.copy( account, fresh ) ){
+                    updates.add( account );
+                }
+            }
+            accountLogic.updateAll( updates );
+            changed += updates.size();
+        }
+        Logger.getLogger( ScoreRefresher.class.getName() ).log( Level.INFO, "refreshed accounts, {0} changed", changed );
+        return changed;
+    }
+
+    /**
+     * refresh subscriber count of every stored subreddit.
+     *
+     * @return number of subreddits which were changed
+     */
+    public int refreshSubreddits() {
+        int changed = 0;
+        int lastId = 0;
+        List<Subreddit> subreddits;
+        while( !( subreddits = subredditLogic.getSubredditsAfterId( lastId, RedditWrapper.INFO_BATCH_SIZE ) ).isEmpty() ){
+            lastId = subreddits.get( subreddits.size() - 1 ).getId();
+            Map<String, Subreddit> stored = new HashMap<>();
+            //Reddit matches names case insensitive but returns them in their own case
+            subreddits.forEach( sub -> stored.put( sub.getName().toLowerCase(), sub ) );
+            List<Subreddit> updates = new ArrayList<>();
+            reddit.lookupSubscribers( stored.keySet() ).forEach( ( name, subscribers ) -> {
+                Subreddit sub = stored.get( name.toLowerCase() );
+                if( sub != null && sub.getSubscribers() != subscribers ){
+                    sub.setSubscribers( subscribers );
+                    updates.add( sub );
+                }
+            } );
+            subredditLogic.updateAll( updates );
+            changed += updates.size();
+        }
+        Logger.getLogger( ScoreRefresher.class.getName() ).log( Level.INFO, "refreshed subreddits, {0} changed", changed );
+        return changed;
+    }
+}
@@ -0,0 +1,107 @@
+package reddit;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Counters of one stage of {@link reddit.IngestionPipeline}.<br>
+ * A stage with a full input queue and little starved time is the bottleneck, stages before it spend their time
+ * blocked on output.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class StageStats {
+
+    private final String name;
+    private final BlockingQueue<?> input;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder starvedNanos = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    /**
+     * nanoTime values can be any long, including 0, so whether they are set is kept apart. each flag is written after
+     * its time and read before it.
+     */
+    private long startNanos;
+    private long endNanos;
+    private volatile boolean started;
+    private volatile boolean ended;
+
+    StageStats( String name, BlockingQueue<?> input ) {
+        this.name = name;
+        this.input = input;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+        started = true;
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        ended = true;
+    }
+
+    void addProcessed( int count ) {
+        processed.add( count );
+    }
+
+    void addStarved( long nanos ) {
+        starvedNanos.add( nanos );
+    }
+
+    void addBlocked( long nanos ) {
+        blockedNanos.add( nanos );
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of items waiting in front of this stage, 0 for the first stage.
+     */
+    public int getQueueDepth() {
+        return input == null ? 0 : input.size();
+    }
+
+    /**
+     * @return number of items this stage has finished.
+     */
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+    /**
+     * @return items per second since this stage started.
+     */
+    public double getThroughput() {
+        if( !started ){
+            return 0;
+        }
+        long end = ended ? endNanos : System.nanoTime();
+        double seconds = Math.max( 1, end - startNanos ) / 1e9;
+        return processed.sum() / seconds;
+    }
+
+    /**
+     * @return time spent waiting for input, high for stages after the bottleneck.
+     */
+    public long getStarvedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis( starvedNanos.sum() );
+    }
+
+    /**
+     * @return time spent waiting for space in the next queue, high for stages before the bottleneck.
+     */
+    public long getBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis( blockedNanos.sum() );
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "%s[ queue=%d, processed=%d, %.1f/s, starved=%dms, blocked=%dms ]", name, getQueueDepth(),
+                getProcessed(), getThroughput(), getStarvedMillis(), getBlockedMillis() );
+    }
+}
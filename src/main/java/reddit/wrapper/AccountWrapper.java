@@ -17,10 +17,37 @@ import net.dean.jraw.models.Account;
  */
 public class AccountWrapper {
 
-    private Account account;
+    private final String uniqueId;
+    private final String name;
+    private final int linkKarma;
+    private final int commentKarma;
+    private final Date created;
+    private final Boolean hasVerifiedEmail;
 
     AccountWrapper( Account account ) {
-        this.account = account;
+        this( null, account.getName(), account.getLinkKarma(), account.getCommentKarma(), account.getCreated(),
+                account.getHasVerifiedEmail() );
+    }
+
+    /**
+     * create an account from values read directly from a Reddit response, i.e. /user/{name}/about or
+     * /api/user_data_by_account_ids.
+     */
+    AccountWrapper( String uniqueId, String name, int linkKarma, int commentKarma, Date created, Boolean hasVerifiedEmail ) {
+        this.uniqueId = uniqueId;
+        this.name = name;
+        this.linkKarma = linkKarma;
+        this.commentKarma = commentKarma;
+        this.created = created;
+        this.hasVerifiedEmail = hasVerifiedEmail;
+    }
+
+    /**
+     *
+     * @return id of this account without the "t2_" prefix, null if not known
+     */
+    public String getUniqueID() {
+        return uniqueId;
     }
 
     /**
@@ -28,11 +55,11 @@ public class AccountWrapper {
      * @return The amount of Karma this user has acquired through comment
      */
     public int getCommentKarma() {
-        return account.getCommentKarma();
+        return commentKarma;
     }
 
     public Date getCreated() {
-        return account.getCreated();
+        return created;
     }
 
     /**
@@ -40,7 +67,7 @@ public class AccountWrapper {
      * @return True if this user has verified ownership of the email address used to create their account. May be null.
      */
     public Boolean getHasVerifiedEmail() {
-        return account.getHasVerifiedEmail();
+        return hasVerifiedEmail;
     }
 
     /**
@@ -48,7 +75,7 @@ public class AccountWrapper {
      * @return The amount of karma gained from submitting links
      */
     public int getLinkKarma() {
-        return account.getLinkKarma();
+        return linkKarma;
     }
 
     /**
@@ -56,6 +83,6 @@ public class AccountWrapper {
      * @return The name chosen for this account by a real person
      */
     public String getName() {
-        return account.getName();
+        return name;
     }
 }
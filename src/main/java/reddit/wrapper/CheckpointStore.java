@@ -0,0 +1,53 @@
+package reddit.wrapper;
+
+import java.util.Date;
+
+/**
+ * <p>
+ * Storage of the newest post already crawled for a subreddit and sort.<br>
+ * Given to {@link reddit.wrapper.RedditWrapper#configureCurentSubreddit(String, int, SubSort, CheckpointStore)} so
+ * only posts newer than the last crawl are processed.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public interface CheckpointStore {
+
+    /**
+     * fullname and creation date of the newest post seen.
+     */
+    final class Checkpoint {
+
+        private final String fullname;
+        private final Date created;
+
+        public Checkpoint( String fullname, Date created ) {
+            this.fullname = fullname;
+            this.created = created;
+        }
+
+        /**
+         * @return fullname of post, i.e. "t3_abc123"
+         */
+        public String getFullname() {
+            return fullname;
+        }
+
+        public Date getCreated() {
+            return created;
+        }
+    }
+
+    /**
+     * @param subreddit - name of subreddit
+     * @param sort - sort used to crawl
+     * @return last saved checkpoint or null if subreddit has never been crawled with this sort
+     */
+    Checkpoint load( String subreddit, SubSort sort );
+
+    /**
+     * @param subreddit - name of subreddit
+     * @param sort - sort used to crawl
+     * @param checkpoint - newest post seen
+     */
+    void save( String subreddit, SubSort sort, Checkpoint checkpoint );
+}
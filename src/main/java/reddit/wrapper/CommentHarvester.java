@@ -0,0 +1,150 @@
+package reddit.wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Fetch the comments of many posts in parallel and merge them into one stream.<br>
+ * Every request still goes through the {@link reddit.wrapper.PacingNetworkAdapter} of the shared client, so parallelism
+ * only fills the idle time between requests, it does not exceed the rate limit.</p>
+ *
+ * It is only created by {@link reddit.wrapper.RedditWrapper} class.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+final class CommentHarvester {
+
+    /**
+     * maximum number of comments waiting for the consumer in unordered mode.
+     */
+    private static final int QUEUE_CAPACITY = 1_000;
+
+    private static final class Done {
+
+        private final RuntimeException error;
+
+        private Done( RuntimeException error ) {
+            this.error = error;
+        }
+    }
+
+    private final int parallelism;
+    private final Consumer<PostWrapper> configurer;
+
+    /**
+     * @param parallelism - number of posts whose comments are fetched at the same time
+     * @param configurer - applied to each post before fetching, i.e. {@link PostWrapper#configComments}
+     */
+    CommentHarvester( int parallelism, Consumer<PostWrapper> configurer ) {
+        if( parallelism < 1 ){
+            throw new IllegalArgumentException( "parallelism must be positive" );
+        }
+        this.parallelism = parallelism;
+        this.configurer = configurer;
+    }
+
+    /**
+     * @param posts - posts to fetch comments for
+     * @param ordered - true to keep comments of each post together and posts in given order, needs to buffer every
+     * post until the ones before it are done. false to hand over comments as soon as they arrive.
+     * @param callback - called for every comment, always from the calling thread
+     */
+    void harvest( List<PostWrapper> posts, boolean ordered, Consumer<CommentWrapper> callback ) {
+        if( posts.isEmpty() ){
+            return;
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool( Math.min( parallelism, posts.size() ), r -> {
+            Thread t = new Thread( r, "reddit-comments-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        } );
+        try {
+            if( ordered ){
+                harvestOrdered( pool, posts, callback );
+            } else {
+                harvestUnordered( pool, posts, callback );
+            }
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while fetching comments", ex );
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void harvestOrdered( ExecutorService pool, List<PostWrapper> posts, Consumer<CommentWrapper> callback )
+            throws InterruptedException {
+        List<Future<List<CommentWrapper>>> results = new ArrayList<>( posts.size() );
+        for( PostWrapper post: posts ) {
+            results.add( pool.submit( () -> {
+                List<CommentWrapper> comments = new ArrayList<>();
+                configurer.accept( post );
+                post.processComments( comments::add );
+                return comments;
+            } ) );
+        }
+        for( Future<List<CommentWrapper>> result: results ) {
+            try {
+                result.get().forEach( callback );
+            } catch( ExecutionException ex ) {
+                throw unwrap( ex.getCause() );
+            }
+        }
+    }
+
+    private void harvestUnordered( ExecutorService pool, List<PostWrapper> posts, Consumer<CommentWrapper> callback )
+            throws InterruptedException {
+        //bounded so fetching threads wait when the consumer is slower
+        BlockingQueue<Object> merged = new LinkedBlockingQueue<>( QUEUE_CAPACITY );
+        for( PostWrapper post: posts ) {
+            pool.execute( () -> {
+                RuntimeException error = null;
+                try {
+                    configurer.accept( post );
+                    post.processComments( comment -> put( merged, comment ) );
+                } catch( RuntimeException ex ) {
+                    error = ex;
+                }
+                put( merged, new Done( error ) );
+            } );
+        }
+        int remaining = posts.size();
+        while( remaining > 0 ){
+            Object next = merged.take();
+            if( next instanceof Done ){
+                remaining--;
+                if( ( (Done)next ).error != null ){
+                    throw ( (Done)next ).error;
+                }
+            } else {
+                callback.accept( (CommentWrapper)next );
+            }
+        }
+    }
+
+    private static void put( BlockingQueue<Object> queue, Object value ) {
+        try {
+            queue.put( value );
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while handing over comments", ex );
+        }
+    }
+
+    private static RuntimeException unwrap( Throwable cause ) {
+        if( cause instanceof RuntimeException ){
+            return (RuntimeException)cause;
+        }
+        return new IllegalStateException( "failed to fetch comments", cause );
+    }
+}
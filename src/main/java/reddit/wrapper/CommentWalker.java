@@ -0,0 +1,147 @@
+package reddit.wrapper;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.models.PublicContribution;
+import net.dean.jraw.tree.CommentNode;
+import net.dean.jraw.tree.RootCommentNode;
+
+/**
+ * <p>
+ * Depth first walk of a comment tree which loads "more children" stubs only when the walk gets to them.<br>
+ * Comments are handed to the callback as soon as their chunk arrives. Up to concurrency stubs are expanded in the
+ * background while earlier comments are processed, and the walk stops after nodeBudget comments. Memory held at any
+ * time is the first chunk (bounded by {@link PostWrapper#configComments(int, int, CommentSort)}) plus the expanded
+ * chunks not walked yet, independent of how big the thread is.</p>
+ *
+ * It is only created by {@link reddit.wrapper.PostWrapper} class.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+final class CommentWalker {
+
+    private final PostWrapper post;
+    private final RedditWrapper reddit;
+    private final int concurrency;
+    private final int nodeBudget;
+
+    CommentWalker( PostWrapper post, RedditWrapper reddit, int concurrency, int nodeBudget ) {
+        if( concurrency < 1 || nodeBudget < 1 ){
+            throw new IllegalArgumentException( "concurrency and nodeBudget must be positive" );
+        }
+        this.post = post;
+        this.reddit = reddit;
+        this.concurrency = concurrency;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * walk the tree under root.
+     *
+     * @param root - first chunk of comments
+     * @param callback - called once for every comment, always from the calling thread
+     * @return number of comments given to callback
+     */
+    int walk( RootCommentNode root, Consumer<CommentWrapper> callback ) {
+        RedditClient client = reddit.getRawReddit();
+        Deque<CommentNode<?>> stack = new ArrayDeque<>();
+        Deque<CommentNode<?>> stubs = new ArrayDeque<>();
+        pushReplies( stack, root.getReplies() );
+        if( root.hasMoreChildren() ){
+            stubs.add( root );
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool( concurrency, r -> {
+            Thread t = new Thread( r, "reddit-more-children" );
+            t.setDaemon( true );
+            return t;
+        } );
+        CompletionService<CommentNode<?>> loaded = new ExecutorCompletionService<>( pool );
+        int inFlight = 0;
+        int emitted = 0;
+        try {
+            while( emitted < nodeBudget ){
+                while( !stack.isEmpty() && emitted < nodeBudget ){
+                    CommentNode<?> node = stack.pop();
+                    callback.accept( wrap( node ) );
+                    emitted++;
+                    if( node.hasMoreChildren() ){
+                        stubs.add( node );
+                    }
+                    pushReplies( stack, node.getReplies() );
+                    inFlight += expand( stubs, loaded, client, inFlight );
+                }
+                if( emitted >= nodeBudget ){
+                    break;
+                }
+                inFlight += expand( stubs, loaded, client, inFlight );
+                if( inFlight == 0 ){
+                    break;
+                }
+                //nothing left to walk, wait for the next chunk
+                CommentNode<?> chunk = loaded.take().get();
+                inFlight--;
+                pushReplies( stack, chunk.getReplies() );
+                //a chunk can end with its own stub for the rest of the siblings
+                if( chunk.hasMoreChildren() ){
+                    stubs.add( chunk );
+                }
+            }
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while loading more comments", ex );
+        } catch( ExecutionException ex ) {
+            Throwable cause = ex.getCause();
+            if( cause instanceof RuntimeException ){
+                throw (RuntimeException)cause;
+            }
+            throw new IllegalStateException( "failed to load more comments", cause );
+        } finally {
+            pool.shutdownNow();
+        }
+        return emitted;
+    }
+
+    /**
+     * start loading stubs until concurrency requests are running.
+     *
+     * @return number of new requests started
+     */
+    private int expand( Deque<CommentNode<?>> stubs, CompletionService<CommentNode<?>> loaded,
+            RedditClient client, int inFlight ) {
+        int started = 0;
+        while( inFlight + started < concurrency && !stubs.isEmpty() ){
+            CommentNode<?> stub = stubs.poll();
+            //fake root of the loaded chunk, it keeps the stub of the siblings not loaded yet
+            loaded.submit( () -> stub.loadMore( client ) );
+            started++;
+        }
+        return started;
+    }
+
+    /**
+     * push in reverse so the first reply is walked first.
+     */
+    private static void pushReplies( Deque<CommentNode<?>> stack, List<? extends CommentNode<?>> replies ) {
+        ListIterator<? extends CommentNode<?>> it = replies.listIterator( replies.size() );
+        while( it.hasPrevious() ){
+            stack.push( it.previous() );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private CommentWrapper wrap( CommentNode<?> node ) {
+        CommentNode<PublicContribution<?>> comment = (CommentNode<PublicContribution<?>>)(CommentNode)node;
+        AccountWrapper author = reddit.getAccountFor( comment.getSubject().getAuthor() );
+        return new CommentWrapper( author, post, comment );
+    }
+}
@@ -0,0 +1,101 @@
+package reddit.wrapper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Throughput of one subreddit crawled by {@link reddit.wrapper.RedditCrawler}.<br>
+ * Values are updated while the crawl is running and can be read at any time from any thread.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class CrawlStats {
+
+    private final String subreddit;
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong posts = new AtomicLong();
+    /**
+     * nanoTime values can be any long, including 0, so whether they are set is kept apart. each flag is written after
+     * its time and read before it.
+     */
+    private long started;
+    private long finished;
+    private volatile boolean isStarted;
+    private volatile boolean isFinished;
+    private volatile Exception error;
+
+    CrawlStats( String subreddit ) {
+        this.subreddit = subreddit;
+    }
+
+    void start() {
+        started = System.nanoTime();
+        isStarted = true;
+    }
+
+    void finish( Exception error ) {
+        this.error = error;
+        finished = System.nanoTime();
+        isFinished = true;
+    }
+
+    void addPage() {
+        pages.incrementAndGet();
+    }
+
+    void addPost() {
+        posts.incrementAndGet();
+    }
+
+    public String getSubreddit() {
+        return subreddit;
+    }
+
+    public long getPages() {
+        return pages.get();
+    }
+
+    public long getPosts() {
+        return posts.get();
+    }
+
+    /**
+     * @return true once crawling of this subreddit has ended, successfully or not.
+     */
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    /**
+     * @return exception which stopped this subreddit, null if none
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return time spent on this subreddit so far in milliseconds
+     */
+    public long getElapsedMillis() {
+        if( !isStarted ){
+            return 0;
+        }
+        long end = isFinished ? finished : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis( end - started );
+    }
+
+    /**
+     * @return average number of posts processed per second
+     */
+    public double getPostsPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0 : getPosts() * 1000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "CrawlStats[ subreddit=%s, pages=%d, posts=%d, elapsed=%dms, posts/s=%.2f, error=%s ]",
+                subreddit, getPages(), getPosts(), getElapsedMillis(), getPostsPerSecond(), error );
+    }
+}
@@ -0,0 +1,197 @@
+package reddit.wrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Bounded, time based cache used by {@link reddit.wrapper.RedditWrapper} to avoid repeating identical Reddit API
+ * calls.<br>
+ * Entries expire after a fixed time to live and the least recently used entry is dropped once the size limit is
+ * reached. Concurrent misses for the same key are collapsed into a single call of the loader (single-flight), all
+ * other callers wait for and share that result.</p>
+ *
+ * @author Shariar (Shawn) Emami
+ * @param <K> - key type
+ * @param <V> - value type
+ */
+final class ExpiringCache<K, V> {
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expires;
+
+        private Entry( V value, long expires ) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * guarded by entries, changed by {@link #configure(int, long, TimeUnit)}.
+     */
+    private int maxSize;
+    private long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize - maximum number of entries to keep
+     * @param ttl - how long an entry stays valid
+     * @param unit - unit of ttl
+     */
+    ExpiringCache( int maxSize, long ttl, TimeUnit unit ) {
+        validate( maxSize, ttl );
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos( ttl );
+        //access ordered so the eldest entry is always the least recently used
+        this.entries = new LinkedHashMap<K, Entry<V>>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<K, Entry<V>> eldest ) {
+                return size() > ExpiringCache.this.maxSize;
+            }
+        };
+    }
+
+    private static void validate( int maxSize, long ttl ) {
+        if( maxSize < 1 || ttl < 1 ){
+            throw new IllegalArgumentException( "maxSize and ttl must be positive" );
+        }
+    }
+
+    /**
+     * change size and time to live and drop every entry. everyone holding this cache sees the new settings.
+     *
+     * @param maxSize - maximum number of entries to keep
+     * @param ttl - how long an entry stays valid
+     * @param unit - unit of ttl
+     */
+    void configure( int maxSize, long ttl, TimeUnit unit ) {
+        validate( maxSize, ttl );
+        synchronized( entries ) {
+            this.maxSize = maxSize;
+            this.ttlNanos = unit.toNanos( ttl );
+            entries.clear();
+        }
+    }
+
+    /**
+     * get the cached value for key or load it using loader. if another thread is already loading the same key, wait
+     * for its result instead of calling loader again.
+     *
+     * @param key - key to look up, cannot be null
+     * @param loader - function to create the value when it is not cached, cannot return null
+     * @return cached or newly loaded value
+     */
+    V get( K key, Function<? super K, ? extends V> loader ) {
+        Objects.requireNonNull( key, "key cannot be null" );
+        V value = lookup( key );
+        if( value != null ){
+            hits.increment();
+            return value;
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent( key, mine );
+        if( existing != null ){
+            //someone else is already asking Reddit, share their answer
+            hits.increment();
+            return await( existing );
+        }
+        try {
+            //another thread may have finished loading between lookup and putIfAbsent
+            value = lookup( key );
+            if( value == null ){
+                misses.increment();
+                value = Objects.requireNonNull( loader.apply( key ), "loader cannot return null" );
+                put( key, value );
+            } else {
+                hits.increment();
+            }
+            mine.complete( value );
+            return value;
+        } catch( RuntimeException | Error e ) {
+            mine.completeExceptionally( e );
+            throw e;
+        } finally {
+            inFlight.remove( key, mine );
+        }
+    }
+
+    /**
+     * add or replace a value without calling any loader.
+     *
+     * @param key - key of value
+     * @param value - value to be cached
+     */
+    void put( K key, V value ) {
+        synchronized( entries ) {
+            entries.put( key, new Entry<>( value, System.nanoTime() + ttlNanos ) );
+        }
+    }
+
+    void invalidate( K key ) {
+        synchronized( entries ) {
+            entries.remove( key );
+        }
+    }
+
+    void clear() {
+        synchronized( entries ) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized( entries ) {
+            return entries.size();
+        }
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    private V lookup( K key ) {
+        synchronized( entries ) {
+            Entry<V> entry = entries.get( key );
+            if( entry == null ){
+                return null;
+            }
+            if( entry.expires - System.nanoTime() <= 0 ){
+                entries.remove( key );
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private V await( CompletableFuture<V> future ) {
+        try {
+            return future.join();
+        } catch( CompletionException e ) {
+            Throwable cause = e.getCause();
+            if( cause instanceof RuntimeException ){
+                throw (RuntimeException)cause;
+            }
+            if( cause instanceof Error ){
+                throw (Error)cause;
+            }
+            throw e;
+        }
+    }
+}
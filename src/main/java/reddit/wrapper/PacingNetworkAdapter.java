@@ -0,0 +1,297 @@
+package reddit.wrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.HttpResponse;
+import net.dean.jraw.http.NetworkAdapter;
+import net.dean.jraw.http.UserAgent;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * <p>
+ * {@link net.dean.jraw.http.NetworkAdapter} which paces requests using the rate limit headers Reddit returns with every
+ * OAuth response and retries throttled or failed requests.<br>
+ * The remaining requests of the current window ({@value #REMAINING}) are spread evenly over the seconds left until
+ * the window resets ({@value #RESET}). Responses with status 429 are retried once {@value #RETRY_AFTER} or else the
+ * window reset allows. Responses with status 5xx and network errors are retried with jittered exponential backoff,
+ * only for idempotent methods since a failed POST may still have been applied.</p>
+ *
+ * @see <a href="https://github.com/reddit-archive/reddit/wiki/API#rules">Reddit API rules</a>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class PacingNetworkAdapter implements NetworkAdapter {
+
+    static final String REMAINING = "X-Ratelimit-Remaining";
+    static final String RESET = "X-Ratelimit-Reset";
+    static final String USED = "X-Ratelimit-Used";
+    static final String RETRY_AFTER = "Retry-After";
+
+    /**
+     * methods which can be sent again without changing the result, see RFC 7231 section 4.2.2.
+     */
+    private static final Set<String> IDEMPOTENT = Set.of( "GET", "HEAD", "PUT", "DELETE", "OPTIONS" );
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int DEFAULT_MAX_RETRIES = 5;
+    private static final long BASE_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final NetworkAdapter delegate;
+    private final int maxRetries;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder pacedMillis = new LongAdder();
+
+    private double remaining = -1;
+    private long resetSeconds = -1;
+    private long used = -1;
+    private long intervalNanos;
+    private long nextSlot = System.nanoTime();
+    /**
+     * end of the window the last rate limit headers describe, pacing is only known until then.
+     */
+    private long pacedUntil = System.nanoTime();
+    private boolean paced;
+
+    /**
+     * @param delegate - adapter which actually sends the requests, i.e. {@link net.dean.jraw.http.OkHttpNetworkAdapter}
+     */
+    public PacingNetworkAdapter( NetworkAdapter delegate ) {
+        this( delegate, DEFAULT_MAX_RETRIES );
+    }
+
+    /**
+     * @param delegate - adapter which actually sends the requests, i.e. {@link net.dean.jraw.http.OkHttpNetworkAdapter}
+     * @param maxRetries - how many times a throttled or failed request is repeated before giving up
+     */
+    public PacingNetworkAdapter( NetworkAdapter delegate, int maxRetries ) {
+        this.delegate = Objects.requireNonNull( delegate, "delegate cannot be null" );
+        if( maxRetries < 0 ){
+            throw new IllegalArgumentException( "maxRetries cannot be negative" );
+        }
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public UserAgent getUserAgent() {
+        return delegate.getUserAgent();
+    }
+
+    @Override
+    public void setUserAgent( UserAgent userAgent ) {
+        delegate.setUserAgent( userAgent );
+    }
+
+    @Override
+    public WebSocket connect( String url, WebSocketListener listener ) {
+        return delegate.connect( url, listener );
+    }
+
+    @Override
+    public HttpResponse execute( HttpRequest request ) {
+        boolean idempotent = IDEMPOTENT.contains( request.getMethod().toUpperCase( Locale.ROOT ) );
+        for( int attempt = 0;; attempt++ ) {
+            pace();
+            requests.increment();
+            HttpResponse response;
+            try {
+                response = delegate.execute( request );
+            } catch( Exception ex ) {
+                //OkHttp throws IOException without declaring it
+                if( !( ex instanceof IOException ) || !idempotent || attempt >= maxRetries ){
+                    throw ex;
+                }
+                retries.increment();
+                backoff( attempt, 0, ex.toString() );
+                continue;
+            }
+            update( response );
+            int code = response.getCode();
+            //a throttled request was not processed and can always be sent again
+            boolean retry = code == TOO_MANY_REQUESTS || code >= 500 && idempotent;
+            if( !retry || attempt >= maxRetries ){
+                return response;
+            }
+            long wait = retryAfterMillis( response.getRaw().header( RETRY_AFTER ) );
+            if( code == TOO_MANY_REQUESTS ){
+                throttled.increment();
+                if( wait < 0 ){
+                    wait = TimeUnit.SECONDS.toMillis( getResetSeconds() );
+                }
+            }
+            retries.increment();
+            response.getRaw().close();
+            backoff( attempt, Math.max( 0, wait ), "status " + code );
+        }
+    }
+
+    /**
+     * wait for the next free slot of the current window.
+     */
+    private void pace() {
+        long waitNanos;
+        synchronized( this ) {
+            long now = System.nanoTime();
+            long slot = Math.max( now, nextSlot );
+            nextSlot = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if( waitNanos > 0 ){
+            pacedMillis.add( TimeUnit.NANOSECONDS.toMillis( waitNanos ) );
+            sleep( waitNanos );
+        }
+    }
+
+    /**
+     * read rate limit headers and recalculate the interval between requests.
+     */
+    private void update( HttpResponse response ) {
+        String remainingHeader = response.getRaw().header( REMAINING );
+        String resetHeader = response.getRaw().header( RESET );
+        if( remainingHeader == null || resetHeader == null ){
+            //not an OAuth response, i.e. token request
+            return;
+        }
+        try {
+            double newRemaining = Double.parseDouble( remainingHeader );
+            long newReset = Long.parseLong( resetHeader.trim() );
+            String usedHeader = response.getRaw().header( USED );
+            synchronized( this ) {
+                remaining = newRemaining;
+                resetSeconds = newReset;
+                used = usedHeader == null ? -1 : Long.parseLong( usedHeader.trim() );
+                long window = TimeUnit.SECONDS.toNanos( Math.max( 1, newReset ) );
+                paced = true;
+                pacedUntil = System.nanoTime() + window;
+                if( newRemaining < 1 ){
+                    //budget is gone, nothing is sent before the window resets
+                    intervalNanos = 0;
+                    nextSlot = Math.max( nextSlot, System.nanoTime() + window );
+                } else {
+                    intervalNanos = (long)( window / newRemaining );
+                }
+            }
+        } catch( NumberFormatException ex ) {
+            Logger.getLogger( PacingNetworkAdapter.class.getName() ).log( Level.WARNING, "bad rate limit header", ex );
+        }
+    }
+
+    /**
+     * @param header - value of {@value #RETRY_AFTER}, seconds or an HTTP date
+     * @return milliseconds to wait, -1 if header is missing or not valid
+     */
+    static long retryAfterMillis( String header ) {
+        if( header == null || header.isBlank() ){
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis( Math.max( 0, Long.parseLong( header.trim() ) ) );
+        } catch( NumberFormatException ex ) {
+            //not seconds, try a date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse( header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME );
+            return Math.max( 0, Duration.between( ZonedDateTime.now( at.getZone() ), at ).toMillis() );
+        } catch( DateTimeParseException ex ) {
+            Logger.getLogger( PacingNetworkAdapter.class.getName() ).log( Level.WARNING, "bad Retry-After header: {0}", header );
+            return -1;
+        }
+    }
+
+    private void backoff( int attempt, long minimumMillis, String reason ) {
+        long cap = Math.min( MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min( attempt, 20 ) );
+        //full jitter, spreads retries of concurrent threads
+        long delay = Math.max( minimumMillis, ThreadLocalRandom.current().nextLong( cap + 1 ) );
+        Logger.getLogger( PacingNetworkAdapter.class.getName() ).log( Level.INFO, "retry {0} after {1}ms, {2}",
+                new Object[]{ attempt + 1, delay, reason } );
+        sleep( TimeUnit.MILLISECONDS.toNanos( delay ) );
+    }
+
+    private static void sleep( long nanos ) {
+        try {
+            TimeUnit.NANOSECONDS.sleep( nanos );
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "interrupted while waiting to send request", ex );
+        }
+    }
+
+    /**
+     * @return true if requests are paced by rate limit headers of the current window, false before the first OAuth
+     * response or once the window they describe has ended without a new one.
+     */
+    public synchronized boolean isPacing() {
+        return paced && pacedUntil - System.nanoTime() > 0;
+    }
+
+    /**
+     * @return requests left in current window as last reported by Reddit, -1 if not known yet.
+     */
+    public synchronized double getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return seconds until current window resets as last reported by Reddit, -1 if not known yet.
+     */
+    public synchronized long getResetSeconds() {
+        return resetSeconds;
+    }
+
+    /**
+     * @return requests used in current window as last reported by Reddit, -1 if not known yet.
+     */
+    public synchronized long getUsed() {
+        return used;
+    }
+
+    /**
+     * @return current minimum time between two requests in milliseconds.
+     */
+    public synchronized long getIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis( intervalNanos );
+    }
+
+    /**
+     * @return number of requests sent, including retries.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return number of requests repeated after a 429, or a 5xx or network error of an idempotent request.
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * @return number of 429 responses received.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return total time requests waited for their slot in milliseconds.
+     */
+    public long getPacedMillis() {
+        return pacedMillis.sum();
+    }
+}
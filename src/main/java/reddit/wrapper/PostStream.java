@@ -0,0 +1,158 @@
+package reddit.wrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.pagination.DefaultPaginator;
+
+/**
+ * <p>
+ * Iterator of posts which downloads pages ahead of the consumer.<br>
+ * A background thread requests the next pages and resolves their authors while the caller is still processing earlier
+ * posts. At most pagesInFlight finished pages wait in memory, once that many are waiting the download thread blocks
+ * until the consumer catches up. Posts already processed by an earlier crawl are skipped and downloading stops at
+ * them, the same as {@link RedditWrapper#proccessCurrentPage(java.util.function.Consumer)}.</p>
+ *
+ * <pre>
+   try( PostStream posts = scrap.configureCurentSubreddit( "java", 25, SubSort.NEW ).streamPosts( 2, 10 ) ){
+       while( posts.hasNext() ){
+           save( posts.next() );
+       }
+   }
+ * </pre>
+ *
+ * It is only created by {@link reddit.wrapper.RedditWrapper} class.
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class PostStream implements Iterator<PostWrapper>, AutoCloseable {
+
+    /**
+     * marks the end of stream in queue.
+     */
+    private static final List<PostWrapper> END = Collections.emptyList();
+
+    private final RedditWrapper reddit;
+    private final BlockingQueue<Object> pages;
+    private final Thread producer;
+    private Iterator<PostWrapper> current = Collections.emptyIterator();
+    private volatile boolean closed;
+    private boolean finished;
+
+    PostStream( RedditWrapper reddit, DefaultPaginator<Submission> paginator, int pagesInFlight, int pageLimit ) {
+        if( pagesInFlight < 1 ){
+            throw new IllegalArgumentException( "pagesInFlight must be positive" );
+        }
+        this.reddit = reddit;
+        pages = new ArrayBlockingQueue<>( pagesInFlight );
+        producer = new Thread( () -> produce( reddit, paginator, pageLimit ), "reddit-prefetch" );
+        producer.setDaemon( true );
+        producer.start();
+    }
+
+    private void produce( RedditWrapper reddit, DefaultPaginator<Submission> paginator, int pageLimit ) {
+        Object last = END;
+        try {
+            for( int i = 0; i < pageLimit && !closed; i++ ) {
+                Listing<Submission> page = paginator.next();
+                SubredditWrapper sub = reddit.getCurrentSubreddit();
+                List<PostWrapper> posts = new ArrayList<>( page.size() );
+                for( Submission submission: reddit.newerThanCheckpoint( page ) ) {
+                    posts.add( new PostWrapper( reddit.getAccountFor( submission.getAuthor() ), submission, sub, reddit ) );
+                }
+                //blocks while the consumer is behind
+                pages.put( posts );
+                if( reddit.isCaughtUp() || page.isEmpty() || page.getNextName() == null ){
+                    break;
+                }
+            }
+        } catch( InterruptedException ex ) {
+            //only close interrupts, the consumer no longer waits
+            Thread.currentThread().interrupt();
+        } catch( RuntimeException | Error ex ) {
+            //a request cut off by close is not a failure
+            if( !closed ){
+                Logger.getLogger( PostStream.class.getName() ).log( Level.SEVERE, "prefetching failed", ex );
+            }
+            last = ex;
+        } finally {
+            //always end the stream, otherwise hasNext waits forever
+            try {
+                pages.put( last );
+            } catch( InterruptedException ex ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public boolean hasNext() {
+        while( !current.hasNext() ){
+            if( finished || closed ){
+                return false;
+            }
+            Object next;
+            try {
+                next = pages.take();
+            } catch( InterruptedException ex ) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "interrupted while waiting for next page", ex );
+            }
+            if( next instanceof RuntimeException ){
+                finished = true;
+                throw (RuntimeException)next;
+            }
+            if( next instanceof Error ){
+                finished = true;
+                throw (Error)next;
+            }
+            if( next == END ){
+                finished = true;
+                //every post before the known ones has been consumed
+                if( reddit.isCaughtUp() ){
+                    reddit.saveCheckpoint();
+                }
+                return false;
+            }
+            current = ( (List<PostWrapper>)next ).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public PostWrapper next() {
+        if( !hasNext() ){
+            throw new NoSuchElementException();
+        }
+        PostWrapper post = current.next();
+        //only consumed posts may end up in the checkpoint
+        reddit.trackNewest( post.getSubmission() );
+        return post;
+    }
+
+    /**
+     * @return number of downloaded pages waiting to be consumed
+     */
+    public int getPagesWaiting() {
+        return pages.size();
+    }
+
+    /**
+     * stop downloading and drop pages not consumed yet.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        producer.interrupt();
+        pages.clear();
+    }
+}
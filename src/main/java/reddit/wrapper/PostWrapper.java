@@ -31,14 +31,39 @@ public class PostWrapper {
     private RedditWrapper reddit;
     private AccountWrapper acc;
 
-    PostWrapper( AccountWrapper account, SubmissionReference reference, SubredditWrapper sub, RedditWrapper reddit ) {
-        submission = reference.inspect();
-        subRef = reference;
+    /**
+     * wrap a submission which is already downloaded, for example as part of a {@link net.dean.jraw.models.Listing}.
+     * no request is sent to Reddit, use {@link #refresh()} if fresher data is needed. account and sub can be null, in
+     * which case they are requested the first time they are used.
+     */
+    PostWrapper( AccountWrapper account, Submission submission, SubredditWrapper sub, RedditWrapper reddit ) {
+        this.submission = submission;
         acc = account;
         this.sub = sub;
         this.reddit = reddit;
     }
 
+    private SubmissionReference reference() {
+        if( subRef == null ){
+            subRef = submission.toReference( reddit.getRawReddit() );
+        }
+        return subRef;
+    }
+
+    /**
+     * request the latest state of this post from Reddit, votes, comment count and so on.
+     *
+     * @return current object of Post, this
+     */
+    public PostWrapper refresh() {
+        submission = reference().inspect();
+        return this;
+    }
+
+    Submission getSubmission() {
+        return submission;
+    }
+
     public String getUniqueID() {
         return submission.getId();
     }
@@ -67,7 +92,7 @@ public class PostWrapper {
      * @return current object of Post, this
      */
     public PostWrapper processComments( Consumer<CommentWrapper> callback ) {
-        RootCommentNode rootComment = subRef.comments( commentsReq );
+        RootCommentNode rootComment = reference().comments( commentsReq );
         Iterator<CommentNode<PublicContribution<?>>> it = rootComment.walkTree().iterator();
         while( it.hasNext() ) {
             CommentNode<PublicContribution<?>> node = it.next();
@@ -77,6 +102,23 @@ public class PostWrapper {
         return this;
     }
 
+    /**
+     * stream the comments of this post without loading the whole thread first. the first chunk is requested as
+     * configured by {@link #configComments(int, int, CommentSort)}, "load more comments" stubs are expanded only when
+     * reached, up to concurrency at a time. unlike {@link #processComments(Consumer)} the post itself (depth 0) is not
+     * given to callback.
+     *
+     * @param concurrency - number of "more children" requests running at the same time
+     * @param nodeBudget - maximum number of comments to read
+     * @param callback - callback lambda of type Comment class, always called from the calling thread
+     * @return current object of Post, this
+     */
+    public PostWrapper streamComments( int concurrency, int nodeBudget, Consumer<CommentWrapper> callback ) {
+        RootCommentNode rootComment = commentsReq == null ? reference().comments() : reference().comments( commentsReq );
+        new CommentWalker( this, reddit, concurrency, nodeBudget ).walk( rootComment, callback );
+        return this;
+    }
+
     /**
      * configure how the comments in this post should be viewed.
      *
@@ -111,6 +153,9 @@ public class PostWrapper {
      * @return get the account responsible for making this post
      */
     public AccountWrapper getAuthor() {
+        if( acc == null ){
+            acc = reddit.getAccountFor( submission.getAuthor() );
+        }
         return acc;
     }
 
@@ -167,6 +212,9 @@ public class PostWrapper {
      * @return The subreddit where this submission was posted to
      */
     public SubredditWrapper getSubreddit() {
+        if( sub == null ){
+            sub = new SubredditWrapper( reddit.getRawReddit().subreddit( submission.getSubreddit() ).about() );
+        }
         return sub;
     }
 
@@ -0,0 +1,158 @@
+package reddit.wrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * Crawl many subreddits at the same time over one authenticated {@link reddit.wrapper.RedditWrapper}.<br>
+ * Every subreddit gets its own paginator while the {@link net.dean.jraw.RedditClient}, account cache and
+ * {@link reddit.wrapper.PacingNetworkAdapter} are shared, so the total request rate stays within Reddit's OAuth quota
+ * no matter how many workers are used.</p>
+ *
+ * <pre>
+   RedditCrawler crawler = new RedditCrawler( scrap, 4 )
+                .addSubreddit( "java", 25, SubSort.NEW, 4 )
+                .addSubreddit( "programming", 25, SubSort.HOT, 2 );
+   crawler.crawl( post -&gt; queue.add( post ) );
+   crawler.getStats().values().forEach( System.out::println );
+ * </pre>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public class RedditCrawler {
+
+    private static final class Target {
+
+        private final String subreddit;
+        private final int postsPerPage;
+        private final SubSort sort;
+        private final int pageCount;
+
+        private Target( String subreddit, int postsPerPage, SubSort sort, int pageCount ) {
+            this.subreddit = subreddit;
+            this.postsPerPage = postsPerPage;
+            this.sort = sort;
+            this.pageCount = pageCount;
+        }
+    }
+
+    private final RedditWrapper reddit;
+    private final int workers;
+    private final List<Target> targets = new ArrayList<>();
+    private final Map<String, CrawlStats> stats = Collections.synchronizedMap( new LinkedHashMap<>() );
+
+    /**
+     * @param reddit - authenticated wrapper whose client is shared by all workers
+     * @param workers - number of subreddits crawled at the same time
+     */
+    public RedditCrawler( RedditWrapper reddit, int workers ) {
+        Objects.requireNonNull( reddit, "reddit cannot be null" );
+        if( workers < 1 ){
+            throw new IllegalArgumentException( "workers must be positive" );
+        }
+        reddit.getRawReddit();
+        this.reddit = reddit;
+        this.workers = workers;
+    }
+
+    /**
+     * add a subreddit to be crawled.
+     *
+     * @param subreddit - name of subreddit to access
+     * @param postsPerPage - number of post per page to download
+     * @param sort - in what order to sort the posts, ex. Sort.HOT
+     * @param pageCount - maximum number of pages to download
+     *
+     * @return current object of crawler, this
+     */
+    public RedditCrawler addSubreddit( String subreddit, int postsPerPage, SubSort sort, int pageCount ) {
+        Objects.requireNonNull( subreddit, "subreddit cannot be null" );
+        Objects.requireNonNull( sort, "sort cannot be null" );
+        targets.add( new Target( subreddit, postsPerPage, sort, pageCount ) );
+        return this;
+    }
+
+    /**
+     * crawl all added subreddits and block until every one of them is done. callback is called from several threads at
+     * the same time so it must be thread safe. a failing subreddit is logged and recorded in its {@link CrawlStats}, it
+     * does not stop the others.
+     *
+     * @param callback - callback lambda of type Post class
+     *
+     * @return current object of crawler, this
+     *
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public RedditCrawler crawl( Consumer<PostWrapper> callback ) throws InterruptedException {
+        Objects.requireNonNull( callback, "callback cannot be null" );
+        List<Callable<Void>> tasks = new ArrayList<>( targets.size() );
+        for( Target target: targets ) {
+            CrawlStats stat = new CrawlStats( target.subreddit );
+            stats.put( target.subreddit + "/" + target.sort, stat );
+            tasks.add( () -> {
+                crawl( target, stat, callback );
+                return null;
+            } );
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( workers, Math.max( 1, tasks.size() ) ), newThreadFactory() );
+        try {
+            executor.invokeAll( tasks );
+        } finally {
+            executor.shutdownNow();
+        }
+        return this;
+    }
+
+    /**
+     * @return statistics of each subreddit keyed by "name/sort", in the order they were added.
+     */
+    public Map<String, CrawlStats> getStats() {
+        synchronized( stats ) {
+            return new LinkedHashMap<>( stats );
+        }
+    }
+
+    private void crawl( Target target, CrawlStats stat, Consumer<PostWrapper> callback ) {
+        stat.start();
+        Exception error = null;
+        try {
+            RedditWrapper session = reddit.newSession()
+                    .configureCurentSubreddit( target.subreddit, target.postsPerPage, target.sort );
+            for( int i = 0; i < target.pageCount && session.hasNextPage() && !Thread.currentThread().isInterrupted(); i++ ) {
+                session.requestNextPage();
+                stat.addPage();
+                session.proccessCurrentPage( post -> {
+                    stat.addPost();
+                    callback.accept( post );
+                } );
+            }
+        } catch( RuntimeException ex ) {
+            error = ex;
+            Logger.getLogger( RedditCrawler.class.getName() ).log( Level.SEVERE, "crawl of " + target.subreddit + " failed", ex );
+        } finally {
+            stat.finish( error );
+        }
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread( r, "reddit-crawler-" + count.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        };
+    }
+}
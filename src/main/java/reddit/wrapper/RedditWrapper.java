@@ -1,11 +1,23 @@
 package reddit.wrapper;
 
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import net.dean.jraw.RedditClient;
-import net.dean.jraw.http.NetworkAdapter;
+import net.dean.jraw.http.HttpResponse;
+import net.dean.jraw.http.NetworkException;
 import net.dean.jraw.http.OkHttpNetworkAdapter;
 import net.dean.jraw.http.UserAgent;
 import net.dean.jraw.models.Listing;
@@ -13,6 +25,7 @@ import net.dean.jraw.models.Submission;
 import net.dean.jraw.oauth.Credentials;
 import net.dean.jraw.oauth.OAuthHelper;
 import net.dean.jraw.pagination.DefaultPaginator;
+import net.dean.jraw.ratelimit.RateLimiter;
 import net.dean.jraw.references.SubredditReference;
 import reddit.DeveloperAccount;
 
@@ -33,12 +46,54 @@ public class RedditWrapper {
 
     private static final String PLATFORM = "RedditAnalyticWebBot";
     private static final String VERSION = "v0.1";
+    private static final int ACCOUNT_CACHE_SIZE = 10_000;
+    private static final long ACCOUNT_CACHE_TTL_MINUTES = 30;
+    private static final long SUBREDDIT_REFRESH_MINUTES = 10;
+    /**
+     * Reddit allows 60 requests per minute for OAuth clients, a small burst is allowed as long as the average holds.
+     * only used while no rate limit headers are known, otherwise the budget Reddit reports is used.
+     */
+    private static final long OAUTH_REQUESTS_PER_MINUTE = 60;
+    private static final long OAUTH_BURST = 10;
+
+    /**
+     * maximum number of things Reddit returns for one /api/info request.
+     */
+    public static final int INFO_BATCH_SIZE = 100;
+
+    private static final JsonAdapter<Object> JSON = new Moshi.Builder().build().adapter( Object.class );
 
     private RedditClient reddit;
+    private TokenBucket rateLimiter;
+    private PacingNetworkAdapter network;
     private DefaultPaginator<Submission> paginator;
     private List<Listing<Submission>> pages;
     private Listing<Submission> currentPage;
     private SubredditReference currentSubreddit;
+    private String currentName;
+    private SubSort currentSort;
+    private CheckpointStore checkpointStore;
+    private CheckpointStore.Checkpoint checkpoint;
+    private CheckpointStore.Checkpoint newestSeen;
+    /**
+     * also set by the download thread of {@link PostStream}.
+     */
+    private volatile boolean caughtUp;
+    private SubredditWrapper subredditInfo;
+    private long subredditInfoExpires;
+    private long subredditRefreshNanos = TimeUnit.MINUTES.toNanos( SUBREDDIT_REFRESH_MINUTES );
+    /**
+     * shared with every session of {@link #newSession()}, so it is only ever configured in place.
+     */
+    private final ExpiringCache<String, AccountWrapper> accountCache;
+
+    public RedditWrapper() {
+        this( new ExpiringCache<>( ACCOUNT_CACHE_SIZE, ACCOUNT_CACHE_TTL_MINUTES, TimeUnit.MINUTES ) );
+    }
+
+    private RedditWrapper( ExpiringCache<String, AccountWrapper> accountCache ) {
+        this.accountCache = accountCache;
+    }
 
     private void hasAuthenticated() {
         if( reddit == null ){
@@ -80,22 +135,250 @@ public class RedditWrapper {
     }
 
     /**
+     * information of subreddit is requested once per configuration and reused until the refresh interval has passed
+     * or {@link #invalidateCurrentSubreddit()} is called.
+     *
      * @return A wrapper object of current subreddit being browsed.
      */
-    public SubredditWrapper getCurrentSubreddit() {
+    public synchronized SubredditWrapper getCurrentSubreddit() {
         hasAuthenticated();
         hasPagesBeenConfiged();
-        return new SubredditWrapper( currentSubreddit.about() );
+        if( subredditInfo == null || subredditInfoExpires - System.nanoTime() <= 0 ){
+            subredditInfo = new SubredditWrapper( currentSubreddit.about() );
+            subredditInfoExpires = System.nanoTime() + subredditRefreshNanos;
+        }
+        return subredditInfo;
+    }
+
+    /**
+     * drop the cached information of current subreddit, next call to {@link #getCurrentSubreddit()} will request it
+     * again from Reddit.
+     *
+     * @return current object of Scraper, this
+     */
+    public synchronized RedditWrapper invalidateCurrentSubreddit() {
+        subredditInfo = null;
+        return this;
     }
 
     /**
+     * set how long the information of current subreddit is reused before requesting it again.
+     *
+     * @param interval - time between refreshes
+     * @param unit - unit of interval
+     *
+     * @return current object of Scraper, this
+     */
+    public synchronized RedditWrapper setSubredditRefreshInterval( long interval, TimeUnit unit ) {
+        if( interval < 1 ){
+            throw new IllegalArgumentException( "interval must be positive" );
+        }
+        subredditRefreshNanos = unit.toNanos( interval );
+        subredditInfo = null;
+        return this;
+    }
+
+    /**
+     * accounts are cached, so the same author is only requested from Reddit once per time to live. concurrent calls
+     * for the same username share one request. returned account carries its id, use {@link #getAccountsFor(Collection)}
+     * to refresh many known accounts at once.
      *
      * @param username - unique username on reddit
      * @return Account object for the given username.
      */
     public AccountWrapper getAccountFor( String username ) {
         hasAuthenticated();
-        return new AccountWrapper( reddit.user( username ).query().getAccount() );
+        return accountCache.get( username, this::requestAccount );
+    }
+
+    /**
+     * change size and time to live of the account cache and empty it. sessions created by {@link #newSession()} share
+     * the cache, so they see the change too.
+     *
+     * @param maxSize - maximum number of accounts to keep in memory
+     * @param ttl - how long an account is reused before asking Reddit again
+     * @param unit - unit of ttl
+     *
+     * @return current object of Scraper, this
+     */
+    public RedditWrapper configureAccountCache( int maxSize, long ttl, TimeUnit unit ) {
+        accountCache.configure( maxSize, ttl, unit );
+        return this;
+    }
+
+    /**
+     * remove all cached accounts, next call to {@link #getAccountFor(String)} will go to Reddit.
+     *
+     * @return current object of Scraper, this
+     */
+    public RedditWrapper clearAccountCache() {
+        accountCache.clear();
+        return this;
+    }
+
+    /**
+     * @return number of {@link #getAccountFor(String)} calls answered without a new request to Reddit.
+     */
+    public long getAccountCacheHits() {
+        return accountCache.getHitCount();
+    }
+
+    /**
+     * @return number of {@link #getAccountFor(String)} calls which had to request the account from Reddit.
+     */
+    public long getAccountCacheMisses() {
+        return accountCache.getMissCount();
+    }
+
+    /**
+     * @return number of accounts currently held in cache.
+     */
+    public int getAccountCacheSize() {
+        return accountCache.size();
+    }
+
+    /**
+     * request the current state of many posts at once using /api/info, one request per {@value #INFO_BATCH_SIZE} ids.
+     * author and subreddit of the returned posts are only requested if they are used. ids of deleted posts are
+     * silently skipped.
+     *
+     * @param uniqueIds - ids of posts without the "t3_" prefix, same as {@link PostWrapper#getUniqueID()}
+     * @param callback - callback lambda of type Post class
+     *
+     * @return current object of Scraper, this
+     */
+    public RedditWrapper lookupPosts( Collection<String> uniqueIds, Consumer<PostWrapper> callback ) {
+        hasAuthenticated();
+        for( List<String> chunk: chunk( uniqueIds ) ) {
+            String[] fullnames = chunk.stream().map( id -> "t3_" + id ).toArray( String[]::new );
+            for( Object thing: reddit.lookup( fullnames ) ) {
+                if( thing instanceof Submission ){
+                    callback.accept( new PostWrapper( null, (Submission)thing, null, this ) );
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * request the subscriber count of many subreddits at once using /api/info, one request per
+     * {@value #INFO_BATCH_SIZE} names.
+     *
+     * @param names - names of subreddits, same as {@link SubredditWrapper#getName()}
+     *
+     * @return map of subreddit name to number of subscribers, subreddits which do not exist are missing.
+     */
+    public Map<String, Integer> lookupSubscribers( Collection<String> names ) {
+        hasAuthenticated();
+        Map<String, Integer> subscribers = new HashMap<>();
+        for( List<String> chunk: chunk( names ) ) {
+            //response is a Listing of things of kind t5
+            Map<String, Object> listing = requestJson( "/api/info",
+                    Collections.singletonMap( "sr_name", String.join( ",", chunk ) ) );
+            for( Object child: (List<?>)object( listing, "data" ).get( "children" ) ) {
+                Map<String, Object> sub = object( child, "data" );
+                Object count = sub.get( "subscribers" );
+                if( count instanceof Number ){
+                    subscribers.put( (String)sub.get( "display_name" ), ( (Number)count ).intValue() );
+                }
+            }
+        }
+        return subscribers;
+    }
+
+    /**
+     * request many accounts at once using /api/user_data_by_account_ids, one request per {@value #INFO_BATCH_SIZE}
+     * ids. every returned account is also put in the account cache, so following {@link #getAccountFor(String)} calls
+     * for the same authors, i.e. while processing new posts and comments, do not go to Reddit again.
+     *
+     * @param uniqueIds - ids of accounts without the "t2_" prefix, same as {@link AccountWrapper#getUniqueID()}
+     *
+     * @return map of account id to account, suspended and deleted accounts are missing.
+     */
+    public Map<String, AccountWrapper> getAccountsFor( Collection<String> uniqueIds ) {
+        hasAuthenticated();
+        Map<String, AccountWrapper> accounts = new HashMap<>();
+        for( List<String> chunk: chunk( uniqueIds ) ) {
+            String ids = chunk.stream().map( id -> "t2_" + id ).collect( Collectors.joining( "," ) );
+            //response is an object keyed by fullname of each account
+            Map<String, Object> users = requestJson( "/api/user_data_by_account_ids", Collections.singletonMap( "ids", ids ) );
+            users.forEach( ( fullname, value ) -> {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> user = (Map<String, Object>)value;
+                AccountWrapper account = readAccount( fullname.substring( fullname.indexOf( '_' ) + 1 ), user );
+                accounts.put( account.getUniqueID(), account );
+                accountCache.put( account.getName(), account );
+            } );
+        }
+        return accounts;
+    }
+
+    /**
+     * request one account using /user/{name}/about, which unlike {@link net.dean.jraw.references.UserReference#query()}
+     * also returns the id of the account.
+     */
+    private AccountWrapper requestAccount( String username ) {
+        try {
+            Map<String, Object> data = object( requestJson( "/user/" + username + "/about", Collections.emptyMap() ), "data" );
+            return readAccount( (String)data.get( "id" ), data );
+        } catch( NetworkException ex ) {
+            if( ex.getRes().getCode() != 404 ){
+                throw ex;
+            }
+            //deleted or never existed, i.e. "[deleted]" author of a comment
+            return new AccountWrapper( null, username, 0, 0, null, null );
+        }
+    }
+
+    /**
+     * suspended accounts only have a name, every other value is optional.
+     */
+    private static AccountWrapper readAccount( String uniqueId, Map<String, Object> user ) {
+        Object created = user.get( "created_utc" );
+        Object verified = user.get( "has_verified_email" );
+        return new AccountWrapper( uniqueId, (String)user.get( "name" ), number( user.get( "link_karma" ) ),
+                number( user.get( "comment_karma" ) ),
+                created instanceof Number ? new Date( (long)( ( (Number)created ).doubleValue() * 1000 ) ) : null,
+                verified instanceof Boolean ? (Boolean)verified : null );
+    }
+
+    private static int number( Object value ) {
+        return value instanceof Number ? ( (Number)value ).intValue() : 0;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Map<String, Object> object( Object json, String key ) {
+        return (Map<String, Object>)( (Map<String, Object>)json ).get( key );
+    }
+
+    /**
+     * send a GET request through the client, so it is rate limited and paced like every other request, and parse
+     * the body without binding it to a JRAW model.
+     */
+    @SuppressWarnings( "unchecked" )
+    private Map<String, Object> requestJson( String path, Map<String, String> query ) {
+        HttpResponse response = reddit.request( reddit.requestStub().path( path ).query( query ).build() );
+        try {
+            return (Map<String, Object>)JSON.fromJson( response.getBody() );
+        } catch( IOException ex ) {
+            throw new IllegalStateException( "bad response from " + path, ex );
+        }
+    }
+
+    private static List<List<String>> chunk( Collection<String> values ) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>( INFO_BATCH_SIZE );
+        for( String value: values ) {
+            chunk.add( value );
+            if( chunk.size() == INFO_BATCH_SIZE ){
+                chunks.add( chunk );
+                chunk = new ArrayList<>( INFO_BATCH_SIZE );
+            }
+        }
+        if( !chunk.isEmpty() ){
+            chunks.add( chunk );
+        }
+        return chunks;
     }
 
     /**
@@ -110,11 +393,51 @@ public class RedditWrapper {
         dev.isComplete();
         UserAgent userAgent = new UserAgent( PLATFORM, dev.getAppID(), VERSION, dev.getRedditUser() );
         Credentials credentials = Credentials.userless( dev.getClientID(), dev.getClientSecret(), UUID.randomUUID() );
-        NetworkAdapter adapter = new OkHttpNetworkAdapter( userAgent );
-        reddit = OAuthHelper.automatic( adapter, credentials );
+        //pace requests by the rate limit headers Reddit sends back and retry 429/5xx
+        network = new PacingNetworkAdapter( new OkHttpNetworkAdapter( userAgent ) );
+        reddit = OAuthHelper.automatic( network, credentials );
+        //the adapter already retries, retries of JRAW on top would multiply the attempts of one call
+        reddit.setRetryLimit( 0 );
+        //one bucket for the client, every session and crawler thread using this client draws from it. only a fallback
+        //for requests without current headers, a fixed rate in front of the pacer would cap the budget Reddit allows
+        rateLimiter = new TokenBucket( OAUTH_BURST, OAUTH_REQUESTS_PER_MINUTE, TimeUnit.MINUTES );
+        reddit.setRateLimiter( new FallbackRateLimiter( rateLimiter, network ) );
         return this;
     }
 
+    /**
+     * create a new wrapper which shares the authenticated client, rate limiter and account cache of this one but has its
+     * own subreddit and page configuration. used to browse several subreddits at the same time.
+     *
+     * @return new wrapper ready for {@link #configureCurentSubreddit(String, int, SubSort)}
+     */
+    RedditWrapper newSession() {
+        hasAuthenticated();
+        RedditWrapper session = new RedditWrapper( accountCache );
+        session.reddit = reddit;
+        session.rateLimiter = rateLimiter;
+        session.network = network;
+        session.subredditRefreshNanos = subredditRefreshNanos;
+        return session;
+    }
+
+    /**
+     * @return the network layer of this client, exposes current pacing state reported by Reddit.
+     */
+    public PacingNetworkAdapter getNetworkPacing() {
+        hasAuthenticated();
+        return network;
+    }
+
+    /**
+     * @return the rate limiter shared by every request of this client while the rate limit headers of Reddit are not
+     * known, useful to monitor how often requests wait.
+     */
+    public TokenBucket getRateLimiter() {
+        hasAuthenticated();
+        return rateLimiter;
+    }
+
     public RedditWrapper setLogger( boolean log ) {
         hasAuthenticated();
         reddit.setLogHttp( false );
@@ -134,6 +457,14 @@ public class RedditWrapper {
         hasAuthenticated();
 
         currentSubreddit = reddit.subreddit( subreddit );
+        currentName = subreddit;
+        currentSort = sort;
+        currentPage = null;
+        checkpointStore = null;
+        checkpoint = null;
+        newestSeen = null;
+        caughtUp = false;
+        invalidateCurrentSubreddit();
         paginator = currentSubreddit
                 .posts()
                 .limit( postsPerPage )
@@ -142,6 +473,91 @@ public class RedditWrapper {
         return this;
     }
 
+    /**
+     * configure what subreddit to be downloaded, continuing from the last crawl. posts older than the saved checkpoint
+     * are skipped and {@link #hasNextPage()} becomes false once known posts are reached, with SubSort.NEW this is the
+     * first known post otherwise the first page without new posts. the checkpoint is saved automatically when known
+     * posts are reached, call {@link #saveCheckpoint()} to save it after a crawl which stopped earlier.
+     *
+     * @param subreddit - name of subreddit to access
+     * @param postsPerPage - number of post per page to download
+     * @param sort - in what order to sort the posts, ex. Sort.NEW
+     * @param store - where checkpoints are loaded from and saved to
+     *
+     * @return current object of Scraper, this
+     */
+    public RedditWrapper configureCurentSubreddit( String subreddit, int postsPerPage, SubSort sort, CheckpointStore store ) {
+        Objects.requireNonNull( store, "store cannot be null" );
+        configureCurentSubreddit( subreddit, postsPerPage, sort );
+        checkpointStore = store;
+        checkpoint = store.load( subreddit, sort );
+        return this;
+    }
+
+    /**
+     * save the newest post processed since configuration as checkpoint. does nothing if no checkpoint store is
+     * configured or no new post has been processed.
+     *
+     * @return current object of Scraper, this
+     */
+    public RedditWrapper saveCheckpoint() {
+        hasPagesBeenConfiged();
+        if( checkpointStore != null && newestSeen != null ){
+            checkpointStore.save( currentName, currentSort, newestSeen );
+            checkpoint = newestSeen;
+            newestSeen = null;
+        }
+        return this;
+    }
+
+    /**
+     * @return true if crawling has reached posts already processed in an earlier crawl.
+     */
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    private boolean isNewerThanCheckpoint( Submission submission ) {
+        if( checkpoint == null ){
+            return true;
+        }
+        //same second is kept, a duplicate is cheaper than a lost post
+        return !submission.getFullName().equals( checkpoint.getFullname() )
+                && !submission.getCreated().before( checkpoint.getCreated() );
+    }
+
+    void trackNewest( Submission submission ) {
+        if( newestSeen == null || submission.getCreated().after( newestSeen.getCreated() ) ){
+            newestSeen = new CheckpointStore.Checkpoint( submission.getFullName(), submission.getCreated() );
+        }
+    }
+
+    /**
+     * posts of page newer than the checkpoint, all of them if there is none. marks the crawl as caught up once known
+     * posts are reached, see {@link #configureCurentSubreddit(String, int, SubSort, CheckpointStore)}.
+     *
+     * @param page - page in the order Reddit returned it
+     * @return posts to be processed
+     */
+    List<Submission> newerThanCheckpoint( Listing<Submission> page ) {
+        List<Submission> newer = new ArrayList<>( page.size() );
+        for( Submission submission: page ) {
+            if( !isNewerThanCheckpoint( submission ) ){
+                if( currentSort == SubSort.NEW ){
+                    //everything after this one is older
+                    caughtUp = true;
+                    break;
+                }
+                continue;
+            }
+            newer.add( submission );
+        }
+        if( checkpoint != null && newer.isEmpty() ){
+            caughtUp = true;
+        }
+        return newer;
+    }
+
     /**
      * get the next Reddit page. first page if next hasn't been called yet.
      *
@@ -155,6 +571,57 @@ public class RedditWrapper {
         return this;
     }
 
+    /**
+     * @return true if {@link #requestNextPage()} can return more posts, false once the last page has been reached.
+     */
+    public boolean hasNextPage() {
+        hasPagesBeenConfiged();
+        if( caughtUp ){
+            return false;
+        }
+        return currentPage == null || ( !currentPage.isEmpty() && currentPage.getNextName() != null );
+    }
+
+    /**
+     * stream posts of the configured subreddit while the next pages are downloaded in the background. do not call
+     * {@link #requestNextPage()} on this object while the stream is open, both share the same paginator. posts are
+     * selected the same way as {@link #proccessCurrentPage(Consumer)}: downloading stops once known posts are reached
+     * and the checkpoint is saved when the consumer gets to the end of such a stream.
+     *
+     * @param pagesInFlight - maximum number of downloaded pages waiting for the consumer
+     * @param pageLimit - maximum number of pages to download
+     *
+     * @return a stream of posts which must be closed when done
+     */
+    public PostStream streamPosts( int pagesInFlight, int pageLimit ) {
+        hasAuthenticated();
+        hasPagesBeenConfiged();
+        return new PostStream( this, paginator, pagesInFlight, pageLimit );
+    }
+
+    /**
+     * fetch the comments of every post in current page in parallel and hand them to callback as one stream. requests
+     * of all threads share the rate limiter of this client. posts are selected the same way as
+     * {@link #proccessCurrentPage(Consumer)}, including checkpoints.
+     *
+     * @param replyDepth - number of reply depths for each comment to be loaded.
+     * @param totalCountLimit - total number of comments to read per post.
+     * @param sort - order in which to sort the comments.
+     * @param parallelism - number of posts fetched at the same time
+     * @param ordered - true to keep comments grouped by post in page order, false to get them as soon as they arrive
+     * @param callback - callback lambda of type Comment class, always called from the calling thread
+     *
+     * @return current object of Scraper, this
+     */
+    public RedditWrapper proccessCurrentPageComments( int replyDepth, int totalCountLimit, CommentSort sort,
+            int parallelism, boolean ordered, Consumer<CommentWrapper> callback ) {
+        List<PostWrapper> posts = new ArrayList<>();
+        proccessCurrentPage( posts::add );
+        new CommentHarvester( parallelism, post -> post.configComments( replyDepth, totalCountLimit, sort ) )
+                .harvest( posts, ordered, callback );
+        return this;
+    }
+
     /**
      * start processing current page using the callback lambda. callback lambda uses the Post class to access data in
      * each post. this lambda will be called for every single post, one at a time.
@@ -168,9 +635,42 @@ public class RedditWrapper {
         hasPagesBeenConfiged();
         hasNextPageRequested();
 
-        currentPage.forEach( submission -> {
-            callback.accept( new PostWrapper( getAccountFor( submission.getAuthor() ), submission.toReference( reddit ), getCurrentSubreddit(), this ) );
-        } );
+        //one about() request per page instead of one per post
+        SubredditWrapper sub = getCurrentSubreddit();
+        for( Submission submission: newerThanCheckpoint( currentPage ) ) {
+            trackNewest( submission );
+            callback.accept( new PostWrapper( getAccountFor( submission.getAuthor() ), submission, sub, this ) );
+        }
+        if( caughtUp ){
+            saveCheckpoint();
+        }
         return this;
     }
+
+    /**
+     * takes a token of bucket only when the network is not paced by rate limit headers, i.e. before the first OAuth
+     * response or after a window passed without one.
+     */
+    private static final class FallbackRateLimiter implements RateLimiter {
+
+        private final TokenBucket bucket;
+        private final PacingNetworkAdapter network;
+
+        private FallbackRateLimiter( TokenBucket bucket, PacingNetworkAdapter network ) {
+            this.bucket = bucket;
+            this.network = network;
+        }
+
+        @Override
+        public void acquire() {
+            if( !network.isPacing() ){
+                bucket.acquire();
+            }
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            return network.isPacing() || bucket.tryAcquire();
+        }
+    }
 }
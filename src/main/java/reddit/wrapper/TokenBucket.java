@@ -0,0 +1,105 @@
+package reddit.wrapper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import net.dean.jraw.ratelimit.RateLimiter;
+
+/**
+ * <p>
+ * Token bucket {@link net.dean.jraw.ratelimit.RateLimiter} shared by every request sent through one
+ * {@link net.dean.jraw.RedditClient}.<br>
+ * The bucket starts full, holds at most capacity tokens and is refilled continuously at a fixed rate. Each request
+ * takes one token and waits when the bucket is empty, so any number of threads together never exceed the rate.</p>
+ *
+ * @see <a href="https://github.com/reddit-archive/reddit/wiki/API#rules">Reddit API rules, 60 requests per minute</a>
+ *
+ * @author Shariar (Shawn) Emami
+ */
+public final class TokenBucket implements RateLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final LongAdder waits = new LongAdder();
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity - maximum number of requests which can be sent back to back
+     * @param permits - number of requests allowed per unit
+     * @param unit - time unit of permits
+     */
+    public TokenBucket( long capacity, long permits, TimeUnit unit ) {
+        if( capacity < 1 || permits < 1 ){
+            throw new IllegalArgumentException( "capacity and permits must be positive" );
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = permits / (double)unit.toNanos( 1 );
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * block until a token is available and take it.
+     */
+    @Override
+    public void acquire() {
+        long waitNanos;
+        synchronized( this ) {
+            refill();
+            tokens -= 1;
+            //a negative balance is the debt this caller has to wait for, later callers queue behind it
+            waitNanos = tokens >= 0 ? 0 : (long)Math.ceil( -tokens / tokensPerNano );
+        }
+        if( waitNanos > 0 ){
+            waits.increment();
+            try {
+                TimeUnit.NANOSECONDS.sleep( waitNanos );
+            } catch( InterruptedException ex ) {
+                Logger.getLogger( TokenBucket.class.getName() ).log( Level.WARNING, "interrupted while waiting for rate limit", ex );
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * take a token only if one is available right now.
+     *
+     * @return true if a token was taken
+     */
+    @Override
+    public synchronized boolean tryAcquire() {
+        refill();
+        if( tokens >= 1 ){
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of tokens currently in bucket, negative when callers are waiting.
+     */
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    /**
+     * @return number of times a caller had to wait for a token.
+     */
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min( capacity, tokens + ( now - lastRefill ) * tokensPerNano );
+        lastRefill = now;
+    }
+}
@@ -1,5 +1,6 @@
 package view;
 
+import dal.Page;
 import entity.Account;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -21,6 +22,12 @@ import logic.LogicFactory;
 @WebServlet( name = "AccountTable", urlPatterns = { "/AccountTable" } )
 public class AccountTableView extends HttpServlet {
 
+    /**
+     * rows per page, the table is read one page at a time instead of all at once.
+     */
+    private static final int PAGE_SIZE = 100;
+    private static final String CURSOR = "cursor";
+
     /**
      * Processes requests for both HTTP <code>GET</code> and <code>POST</code> methods.
      *
@@ -52,12 +59,12 @@ public class AccountTableView extends HttpServlet {
             out.println( "</tr>" );
 
             AccountLogic logic = LogicFactory.getFor( "Account" );
-            List<Account> entities = logic.getAll();
-            for( Account e: entities ) {
+            Page<List<?>> page = logic.getRowsPage( request.getParameter( CURSOR ), PAGE_SIZE );
+            for( List<?> row: page.getItems() ) {
                 //for other tables replace the code bellow with
-                //extractDataAsList in a loop to fill the data.
+                //getRowsPage in a loop to fill the data.
                 out.printf( "<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td></tr>",
-                        logic.extractDataAsList( e ).toArray() );
+                        row.toArray() );
             }
 
             out.println( "<tr>" );
@@ -69,6 +76,12 @@ public class AccountTableView extends HttpServlet {
             out.println( "<th>Password</th>" );
             out.println( "</tr>" );
             out.println( "</table>" );
+            out.println( "<div style=\"text-align: center;\">" );
+            out.println( "<a href=\"AccountTable\">First</a>" );
+            if( page.hasNext() ){
+                out.printf( "<a href=\"AccountTable?%s=%s\">Next</a>", CURSOR, page.getNextCursor() );
+            }
+            out.println( "</div>" );
             out.printf( "<div style=\"text-align: center;\"><pre>%s</pre></div>", toStringMap( request.getParameterMap() ) );
             out.println( "</body>" );
             out.println( "</html>" );
@@ -1,5 +1,6 @@
 package view;
 
+import dal.Page;
 import entity.Account;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -33,17 +34,24 @@ public class AccountTableViewJSP extends HttpServlet {
         req.getRequestDispatcher( "/jsp/ShowTable-Account.jsp" ).forward( req, resp );
     }
 
+    /**
+     * rows per page, the table is read one page at a time instead of all at once.
+     */
+    private static final int PAGE_SIZE = 100;
+    private static final String CURSOR = "cursor";
+
     private List<?> extractTableData( HttpServletRequest req ) {
         String search = req.getParameter( "searchText" );
         AccountLogic logic = LogicFactory.getFor( "Account" );
         req.setAttribute( "columnName", logic.getColumnNames() );
         req.setAttribute( "columnCode", logic.getColumnCodes() );
-        List<Account> list;
-        if( search != null ){
-            list = logic.search( search );
-        } else {
-            list = logic.getAll();
+        if( search == null ){
+            //only the shown columns of one page are selected, no entities are loaded
+            Page<List<?>> page = logic.getRowsPage( req.getParameter( CURSOR ), PAGE_SIZE );
+            req.setAttribute( "nextCursor", page.getNextCursor() );
+            return page.getItems();
         }
+        List<Account> list = logic.search( search );
         if( list == null || list.isEmpty() ){
             return Collections.emptyList();
         }
@@ -139,21 +139,20 @@ public class CreateSubreddit extends HttpServlet {
         errorMessage = null;
         SubredditLogic aLogic = LogicFactory.getFor( "Subreddit" );
         String name = request.getParameter( SubredditLogic.NAME );
-        if( aLogic.getSubredditWithName( name ) == null ){
-            try {
-                String subscribers = request.getParameter( SubredditLogic.SUBSCRIBERS );
-                int value = Integer.parseInt(subscribers);
-                if (value<0){
-                    throw new Exception("Subscriber count must be 0 or a positive number!!!");
-                }
-                Subreddit subreddit = aLogic.createEntity( request.getParameterMap() );
-                aLogic.add( subreddit );
-            } catch( Exception ex ) {
-                errorMessage = ex.getMessage();
+        try {
+            String subscribers = request.getParameter( SubredditLogic.SUBSCRIBERS );
+            int value = Integer.parseInt(subscribers);
+            if (value<0){
+                throw new Exception("Subscriber count must be 0 or a positive number!!!");
+            }
+            Subreddit subreddit = aLogic.createEntity( request.getParameterMap() );
+            //the insert skips a name added by another request since the check, so it is never stored twice
+            if( !aLogic.addIfAbsent( subreddit ) ){
+                //if duplicate print the error message
+                errorMessage = "Subreddit: \"" + name + "\" already exists";
             }
-        } else {
-            //if duplicate print the error message
-            errorMessage = "Subreddit: \"" + name + "\" already exists";
+        } catch( Exception ex ) {
+            errorMessage = ex.getMessage();
         }
 
         if( errorMessage!=null || request.getParameter( "add" ) != null ){
@@ -1,5 +1,6 @@
 package view;
 
+import dal.Page;
 import entity.Subreddit;
 import logic.LogicFactory;
 import logic.SubredditLogic;
@@ -12,7 +13,6 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +22,12 @@ import java.util.Map;
 @WebServlet( name = "SubredditTable", urlPatterns = { "/SubredditTable" } )
 public class SubredditTableView extends HttpServlet {
 
+    /**
+     * rows per page, the table is read one page at a time instead of all at once.
+     */
+    private static final int PAGE_SIZE = 100;
+    private static final String CURSOR = "cursor";
+
     /**
      * Processes requests for both HTTP <code>GET</code> and <code>POST</code> methods.
      *
@@ -53,8 +59,8 @@ public class SubredditTableView extends HttpServlet {
             out.println( "</tr>" );
 
             SubredditLogic logic = LogicFactory.getFor( "Subreddit" );
-            List<Subreddit> entities = logic.getAll();
-            for( Subreddit e: entities ) {
+            Page<Subreddit> page = logic.getPage( request.getParameter( CURSOR ), PAGE_SIZE, SubredditLogic.ID, Page.Direction.ASC );
+            for( Subreddit e: page.getItems() ) {
                 //for other tables replace the code bellow with
                 //extractDataAsList in a loop to fill the data.
                 out.printf( "<tr><td>%s</td><td>%s</td><td>%s</td><td>%s</td></tr>",
@@ -70,6 +76,12 @@ public class SubredditTableView extends HttpServlet {
             out.println( "<th>Subscribers</th>" );
             out.println( "</tr>" );
             out.println( "</table>" );
+            out.println( "<div style=\"text-align: center;\">" );
+            out.println( "<a href=\"SubredditTable\">First</a>" );
+            if( page.hasNext() ){
+                out.printf( "<a href=\"SubredditTable?%s=%s\">Next</a>", CURSOR, page.getNextCursor() );
+            }
+            out.println( "</div>" );
             out.printf( "<div style=\"text-align: center;\"><pre>%s</pre></div>", toStringMap( request.getParameterMap() ) );
             out.println( "</body>" );
             out.println( "</html>" );
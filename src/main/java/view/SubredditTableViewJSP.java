@@ -1,5 +1,6 @@
 package view;
 
+import dal.Page;
 import entity.Subreddit;
 import logic.SubredditLogic;
 import logic.LogicFactory;
@@ -30,17 +31,24 @@ public class SubredditTableViewJSP extends HttpServlet {
         req.getRequestDispatcher( "/jsp/ShowTable-Subreddit.jsp" ).forward( req, resp );
     }
 
+    /**
+     * rows per page, the table is read one page at a time instead of all at once.
+     */
+    private static final int PAGE_SIZE = 100;
+    private static final String CURSOR = "cursor";
+
     private List<?> extractTableData( HttpServletRequest req ) {
         String search = req.getParameter( "searchText" );
         SubredditLogic logic = LogicFactory.getFor( "Subreddit" );
         req.setAttribute( "columnName", logic.getColumnNames() );
         req.setAttribute( "columnCode", logic.getColumnCodes() );
-        List<Subreddit> list;
-        if( search != null ){
-            list = logic.search( search );
-        } else {
-            list = logic.getAll();
+        if( search == null ){
+            //only the shown columns of one page are selected, no entities are loaded
+            Page<List<?>> page = logic.getRowsPage( req.getParameter( CURSOR ), PAGE_SIZE );
+            req.setAttribute( "nextCursor", page.getNextCursor() );
+            return page.getItems();
         }
+        List<Subreddit> list = logic.search( search );
         if( list == null || list.isEmpty() ){
             return Collections.emptyList();
         }
@@ -99,6 +99,12 @@
                 </tr>
             </table>
         </form>
+        <div style="text-align: center;">
+            <a href="${title}">First</a>
+            <c:if test="${not empty nextCursor}">
+                <a href="${title}?cursor=${nextCursor}">Next</a>
+            </c:if>
+        </div>
         <div style="text-align: center;">
             <pre>${path}</br>${request}${message}</pre>
         </div>
@@ -0,0 +1,55 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class Base36Test {
+
+    @Test
+    final void testDecode() {
+        assertEquals( 0, Base36.decode( "0" ) );
+        assertEquals( 35, Base36.decode( "z" ) );
+        assertEquals( 36, Base36.decode( "10" ) );
+        assertEquals( Long.parseLong( "8xwlg2", 36 ), Base36.decode( "8xwlg2" ) );
+    }
+
+    @Test
+    final void testEncodeDecodeRoundTrip() {
+        for( long value: new long[]{ 0, 1, 35, 36, 1_000_000, Long.parseLong( "8xwlg2", 36 ), Long.parseLong( "zzzzzzzzzzzz", 36 ) } ) {
+            assertEquals( value, Base36.decode( Base36.encode( value ) ) );
+        }
+        assertEquals( "8xwlg2", Base36.encode( Base36.decode( "8xwlg2" ) ) );
+    }
+
+    @Test
+    final void testIsValid() {
+        assertTrue( Base36.isValid( "0" ) );
+        assertTrue( Base36.isValid( "8xwlg2" ) );
+        assertTrue( Base36.isValid( "zzzzzzzzzzzz" ) );
+        assertFalse( Base36.isValid( null ) );
+        assertFalse( Base36.isValid( "" ) );
+        //leading zero would decode to the same value as the id without it
+        assertFalse( Base36.isValid( "08xwlg2" ) );
+        assertFalse( Base36.isValid( "8XWLG2" ) );
+        assertFalse( Base36.isValid( "t3_8xwlg2" ) );
+        //too long for a positive long
+        assertFalse( Base36.isValid( "1000000000000" ) );
+    }
+
+    @Test
+    final void testDecodeInvalid() {
+        assertThrows( NumberFormatException.class, () -> Base36.decode( "8XWLG2" ) );
+        assertThrows( NumberFormatException.class, () -> Base36.decode( "" ) );
+        assertThrows( NumberFormatException.class, () -> Base36.decode( null ) );
+    }
+
+    @Test
+    final void testEncodeNegative() {
+        assertThrows( NumberFormatException.class, () -> Base36.encode( -1 ) );
+    }
+}
@@ -0,0 +1,69 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 100_000;
+    private static final double RATE = 0.01;
+
+    @Test
+    final void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter( INSERTIONS, RATE );
+        for( int i = 0; i < INSERTIONS; i++ ) {
+            filter.put( "t1_" + i );
+            filter.put( i );
+        }
+        for( int i = 0; i < INSERTIONS; i++ ) {
+            assertTrue( filter.mightContain( "t1_" + i ) );
+            assertTrue( filter.mightContain( i ) );
+        }
+    }
+
+    @Test
+    final void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter( INSERTIONS, RATE );
+        for( int i = 0; i < INSERTIONS; i++ ) {
+            filter.put( i );
+        }
+        int falsePositives = 0;
+        for( int i = INSERTIONS; i < INSERTIONS * 2; i++ ) {
+            if( filter.mightContain( i ) ){
+                falsePositives++;
+            }
+        }
+        //allow twice the wanted rate, the real rate only varies a little around it
+        assertTrue( falsePositives < INSERTIONS * RATE * 2, "false positives: " + falsePositives );
+    }
+
+    @Test
+    final void testPutReportsChange() {
+        BloomFilter filter = new BloomFilter( 1_000, RATE );
+        assertFalse( filter.mightContain( "8xwlg2" ) );
+        assertTrue( filter.put( "8xwlg2" ) );
+        assertFalse( filter.put( "8xwlg2" ) );
+        assertTrue( filter.mightContain( "8xwlg2" ) );
+    }
+
+    @Test
+    final void testSize() {
+        BloomFilter filter = new BloomFilter( INSERTIONS, RATE );
+        assertEquals( INSERTIONS, filter.getExpectedInsertions() );
+        //about 9.6 bits per value at 1%
+        assertTrue( filter.getSizeInBytes() >= INSERTIONS * 9.5 / 8 );
+        assertTrue( filter.getSizeInBytes() <= INSERTIONS * 10.0 / 8 );
+    }
+
+    @Test
+    final void testInvalidArguments() {
+        assertThrows( IllegalArgumentException.class, () -> new BloomFilter( 0, RATE ) );
+        assertThrows( IllegalArgumentException.class, () -> new BloomFilter( INSERTIONS, 0 ) );
+        assertThrows( IllegalArgumentException.class, () -> new BloomFilter( INSERTIONS, 1 ) );
+    }
+}
@@ -0,0 +1,63 @@
+package common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class LongHashMapTest {
+
+    @Test
+    final void testPutGet() {
+        LongHashMap<String> map = new LongHashMap<>();
+        assertTrue( map.isEmpty() );
+        assertNull( map.put( 1, "a" ) );
+        assertNull( map.put( 0, "zero" ) );
+        assertNull( map.put( -7, "negative" ) );
+        assertEquals( "a", map.put( 1, "b" ) );
+        assertEquals( 3, map.size() );
+        assertEquals( "b", map.get( 1 ) );
+        assertEquals( "zero", map.get( 0 ) );
+        assertEquals( "negative", map.get( -7 ) );
+        assertNull( map.get( 2 ) );
+        assertTrue( map.containsKey( 0 ) );
+        assertFalse( map.containsKey( 2 ) );
+    }
+
+    @Test
+    final void testPutIfAbsent() {
+        LongHashMap<String> map = new LongHashMap<>();
+        assertNull( map.putIfAbsent( 5, "first" ) );
+        assertEquals( "first", map.putIfAbsent( 5, "second" ) );
+        assertEquals( "first", map.get( 5 ) );
+        assertEquals( 1, map.size() );
+    }
+
+    @Test
+    final void testNullValue() {
+        assertThrows( NullPointerException.class, () -> new LongHashMap<String>().put( 1, null ) );
+    }
+
+    @Test
+    final void testGrowAndClear() {
+        LongHashMap<Long> map = new LongHashMap<>( 4 );
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random( 17 );
+        for( int i = 0; i < 50_000; i++ ) {
+            long key = random.nextLong();
+            map.put( key, key * 3 );
+            expected.put( key, key * 3 );
+        }
+        assertEquals( expected.size(), map.size() );
+        expected.forEach( ( key, value ) -> assertEquals( value, map.get( key ) ) );
+        map.clear();
+        assertTrue( map.isEmpty() );
+        assertNull( map.get( expected.keySet().iterator().next() ) );
+    }
+}
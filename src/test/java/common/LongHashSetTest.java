@@ -0,0 +1,45 @@
+package common;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class LongHashSetTest {
+
+    @Test
+    final void testAddContains() {
+        LongHashSet set = new LongHashSet();
+        assertTrue( set.isEmpty() );
+        assertTrue( set.add( 0 ) );
+        assertTrue( set.add( Long.MIN_VALUE ) );
+        assertTrue( set.add( Long.MAX_VALUE ) );
+        assertFalse( set.add( 0 ) );
+        assertEquals( 3, set.size() );
+        assertTrue( set.contains( 0 ) );
+        assertTrue( set.contains( Long.MIN_VALUE ) );
+        assertFalse( set.contains( 1 ) );
+    }
+
+    @Test
+    final void testGrowAndClear() {
+        LongHashSet set = new LongHashSet( 2 );
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random( 17 );
+        for( int i = 0; i < 50_000; i++ ) {
+            long value = random.nextInt( 40_000 );
+            assertEquals( expected.add( value ), set.add( value ) );
+        }
+        assertEquals( expected.size(), set.size() );
+        expected.forEach( value -> assertTrue( set.contains( value ) ) );
+        set.clear();
+        assertTrue( set.isEmpty() );
+        assertFalse( set.contains( expected.iterator().next() ) );
+    }
+}
@@ -0,0 +1,74 @@
+package dal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class PageCursorTest {
+
+    @Test
+    final void testRoundTrip() {
+        assertRoundTrip( "id", 42, 42 );
+        assertRoundTrip( "points", 7L, 1234 );
+        assertRoundTrip( "created", new Date( 1_600_000_000_000L ), 9 );
+        assertRoundTrip( "isReply", true, 3 );
+        //the separator may appear in a string value
+        assertRoundTrip( "name", "java|kotlin", 5 );
+        assertRoundTrip( "name", "", 6 );
+    }
+
+    @Test
+    final void testCursorIsUrlSafe() {
+        String cursor = PageCursor.encode( "name", Page.Direction.DESC, "a/b+c?d=e&f", 1 );
+        assertTrue( cursor.matches( "[A-Za-z0-9_-]+" ), cursor );
+    }
+
+    @Test
+    final void testRejectOtherColumn() {
+        String cursor = PageCursor.encode( "created", Page.Direction.ASC, new Date(), 1 );
+        assertThrows( IllegalArgumentException.class, () -> PageCursor.decode( cursor, "points", Page.Direction.ASC ) );
+    }
+
+    @Test
+    final void testRejectOtherDirection() {
+        String cursor = PageCursor.encode( "id", Page.Direction.ASC, 10, 10 );
+        assertThrows( IllegalArgumentException.class, () -> PageCursor.decode( cursor, "id", Page.Direction.DESC ) );
+    }
+
+    @Test
+    final void testRejectDamagedCursor() {
+        assertThrows( IllegalArgumentException.class, () -> PageCursor.decode( "not a cursor!", "id", Page.Direction.ASC ) );
+        assertThrows( IllegalArgumentException.class, () -> PageCursor.decode( plain( "id|ASC|i|10" ), "id", Page.Direction.ASC ) );
+        assertThrows( IllegalArgumentException.class, () -> PageCursor.decode( plain( "id|ASC|i|ten|i|10" ), "id", Page.Direction.ASC ) );
+        assertThrows( IllegalArgumentException.class, () -> PageCursor.decode( plain( "id|ASC|x|10|i|10" ), "id", Page.Direction.ASC ) );
+    }
+
+    @Test
+    final void testSupports() {
+        assertTrue( PageCursor.supports( int.class ) );
+        assertTrue( PageCursor.supports( Long.class ) );
+        assertTrue( PageCursor.supports( String.class ) );
+        assertTrue( PageCursor.supports( java.sql.Timestamp.class ) );
+        assertFalse( PageCursor.supports( Double.class ) );
+        assertFalse( PageCursor.supports( Object.class ) );
+    }
+
+    private static void assertRoundTrip( String column, Object value, Object id ) {
+        for( Page.Direction direction: Page.Direction.values() ) {
+            PageCursor cursor = PageCursor.decode( PageCursor.encode( column, direction, value, id ), column, direction );
+            assertEquals( value, cursor.getValue() );
+            assertEquals( id, cursor.getId() );
+        }
+    }
+
+    private static String plain( String text ) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString( text.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
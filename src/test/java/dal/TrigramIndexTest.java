@@ -0,0 +1,194 @@
+package dal;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * index is filled from an in memory table through a fake {@link Connection} which answers the few queries of
+ * {@link TrigramIndex}, so no DB is needed.
+ *
+ * @author Shariar
+ */
+class TrigramIndexTest {
+
+    /**
+     * id to text of rows visible to the index.
+     */
+    private Map<Integer, String> table;
+    /**
+     * called on every row streamed by load, to write while the index is loading.
+     */
+    private Runnable onStream;
+    private AtomicInteger preparedQueries;
+    private TrigramIndex<Object[]> index;
+
+    @BeforeEach
+    final void setUp() {
+        table = new TreeMap<>();
+        table.put( 1, "Hello World" );
+        table.put( 2, "Stra\u00dfe" );
+        table.put( 3, "caf\u00e9 au lait" );
+        onStream = () -> {
+        };
+        preparedQueries = new AtomicInteger();
+        index = new TrigramIndex<>( "comment", Arrays.asList( "text" ), "Comment.findByTextIn", row -> (Integer)row[ 0 ],
+                row -> TrigramIndex.join( (String)row[ 1 ] ) );
+    }
+
+    @Test
+    final void testNormalize() {
+        assertEquals( "strasse", TrigramIndex.normalize( "Stra\u00dfe" ) );
+        assertEquals( "cafe", TrigramIndex.normalize( "Caf\u00e9" ) );
+        assertEquals( "cafe", TrigramIndex.normalize( "ca\u00adfe" ) );
+        assertEquals( "oeuvre", TrigramIndex.normalize( "\u0152uvre" ) );
+        assertEquals( "fine", TrigramIndex.normalize( "\ufb01ne" ) );
+        assertEquals( "", TrigramIndex.normalize( null ) );
+    }
+
+    @Test
+    final void testJoin() {
+        assertEquals( "a" + TrigramIndex.SEPARATOR + "b" + TrigramIndex.SEPARATOR, TrigramIndex.join( "a", null, "b" ) );
+    }
+
+    @Test
+    final void testCandidates() throws SQLException {
+        index.refresh( connection() );
+        assertArrayEquals( new int[]{ 1 }, index.candidates( "WORLD", 0, 10 ) );
+        assertArrayEquals( new int[]{ 2 }, index.candidates( "strasse", 0, 10 ) );
+        assertArrayEquals( new int[]{ 2 }, index.candidates( "Stra\u00dfe", 0, 10 ) );
+        assertArrayEquals( new int[]{ 3 }, index.candidates( "Cafe", 0, 10 ) );
+        assertArrayEquals( new int[ 0 ], index.candidates( "xyz", 0, 10 ) );
+        //too short for a trigram, every row is checked
+        assertArrayEquals( new int[]{ 1, 2, 3 }, index.candidates( "a", 0, 10 ) );
+        assertArrayEquals( new int[]{ 2 }, index.candidates( "a", 1, 1 ) );
+    }
+
+    @Test
+    final void testCandidatesHaveEveryTrigram() throws SQLException {
+        table.put( 4, "worl dwide" );
+        index.refresh( connection() );
+        //4 has every trigram of "world" except "rld", so it is not offered
+        assertArrayEquals( new int[]{ 1 }, index.candidates( "world", 0, 10 ) );
+    }
+
+    @Test
+    final void testAddAfterLoad() throws SQLException {
+        index.refresh( connection() );
+        index.add( Collections.singletonList( new Object[]{ 4, "brand new comment" } ) );
+        assertArrayEquals( new int[]{ 4 }, index.candidates( "new comm", 0, 10 ) );
+        //entities without an id are skipped
+        index.add( Collections.singletonList( new Object[]{ null, "no id yet" } ) );
+        assertArrayEquals( new int[ 0 ], index.candidates( "no id", 0, 10 ) );
+    }
+
+    @Test
+    final void testAddBeforeLoadIsRead() throws SQLException {
+        index.add( Collections.singletonList( new Object[]{ 1, "not loaded" } ) );
+        index.refresh( connection() );
+        assertArrayEquals( new int[ 0 ], index.candidates( "not loaded", 0, 10 ) );
+        assertArrayEquals( new int[]{ 1 }, index.candidates( "hello", 0, 10 ) );
+    }
+
+    @Test
+    final void testAddDuringReloadIsKept() throws SQLException {
+        index.refresh( connection() );
+        //row 1 is updated and committed while the table is streamed again, the stream still sees the old text
+        onStream = () -> index.add( Collections.singletonList( new Object[]{ 1, "updated text" } ) );
+        index.load( connection() );
+        assertArrayEquals( new int[]{ 1 }, index.candidates( "updated", 0, 10 ) );
+        assertArrayEquals( new int[]{ 1 }, index.candidates( "hello", 0, 10 ) );
+    }
+
+    @Test
+    final void testRefreshDoesNotQueryEverySearch() throws SQLException {
+        Connection connection = connection();
+        index.refresh( connection );
+        int afterLoad = preparedQueries.get();
+        table.put( 4, "written by another process" );
+        index.refresh( connection );
+        index.refresh( connection );
+        assertEquals( afterLoad, preparedQueries.get() );
+    }
+
+    /**
+     * @return connection answering the queries of the index from {@link #table}
+     */
+    private Connection connection() {
+        return proxy( Connection.class, ( method, args ) -> {
+            switch( method ) {
+                case "createStatement":
+                    return proxy( java.sql.Statement.class, ( m, a ) -> m.equals( "executeQuery" ) ? query( (String)a[ 0 ], null ) : null );
+                case "prepareStatement":
+                    preparedQueries.incrementAndGet();
+                    String sql = (String)args[ 0 ];
+                    List<Integer> parameters = new ArrayList<>();
+                    return proxy( java.sql.PreparedStatement.class, ( m, a ) -> {
+                        if( m.equals( "setInt" ) ){
+                            parameters.add( (Integer)a[ 1 ] );
+                        } else if( m.equals( "executeQuery" ) ){
+                            return query( sql, parameters );
+                        }
+                        return null;
+                    } );
+                default:
+                    return null;
+            }
+        } );
+    }
+
+    private ResultSet query( String sql, List<Integer> parameters ) {
+        List<Object[]> rows = new ArrayList<>();
+        boolean streaming = parameters == null;
+        if( sql.contains( "WHERE id > ?" ) ){
+            table.keySet().stream().filter( id -> id > parameters.get( 0 ) ).forEach( id -> rows.add( new Object[]{ id } ) );
+        } else {
+            table.forEach( ( id, text ) -> {
+                if( streaming || parameters.contains( id ) ){
+                    rows.add( new Object[]{ id, text } );
+                }
+            } );
+        }
+        int[] position = { -1 };
+        return proxy( ResultSet.class, ( m, a ) -> {
+            switch( m ) {
+                case "next":
+                    if( ++position[ 0 ] < rows.size() ){
+                        if( streaming ){
+                            onStream.run();
+                        }
+                        return true;
+                    }
+                    return false;
+                case "getInt":
+                    return rows.get( position[ 0 ] )[ (Integer)a[ 0 ] - 1 ];
+                case "getString":
+                    return rows.get( position[ 0 ] )[ (Integer)a[ 0 ] - 1 ];
+                default:
+                    return null;
+            }
+        } );
+    }
+
+    private interface Handler {
+
+        Object invoke( String method, Object[] args ) throws Exception;
+    }
+
+    private static <T> T proxy( Class<T> type, Handler handler ) {
+        return type.cast( Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[]{ type },
+                ( proxy, method, args ) -> handler.invoke( method.getName(), args ) ) );
+    }
+}
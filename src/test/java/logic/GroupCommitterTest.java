@@ -0,0 +1,168 @@
+package logic;
+
+import common.TomcatStartUp;
+import dal.EntityManagerContext;
+import entity.Subreddit;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class GroupCommitterTest {
+
+    private static final String PREFIX = "Junit 5 Group ";
+
+    private SubredditLogic subreddit;
+
+    @BeforeAll
+    final static void setUpBeforeClass() throws Exception {
+        TomcatStartUp.createTomcat( "/RedditAnalytic", "common.ServletListener" );
+    }
+
+    @AfterAll
+    final static void tearDownAfterClass() throws Exception {
+        TomcatStartUp.stopAndDestroyTomcat();
+    }
+
+    @BeforeEach
+    final void setUp() throws Exception {
+        subreddit = LogicFactory.getFor( "Subreddit" );
+    }
+
+    @AfterEach
+    final void tearDown() throws Exception {
+        GroupCommitter.disableAll();
+        //remove every subreddit a test may have left behind
+        for( int i = 0; i < 10; i++ ) {
+            Subreddit added = subreddit.getSubredditWithName( PREFIX + i );
+            if( added != null ){
+                subreddit.delete( added );
+            }
+        }
+    }
+
+    private Subreddit create( int i ) {
+        Subreddit entity = new Subreddit();
+        entity.setName( PREFIX + i );
+        entity.setUrl( "http://localhost/junit/group/" + i );
+        entity.setSubscribers( i );
+        return entity;
+    }
+
+    /**
+     * add each entity on its own thread, all of them are started together.
+     *
+     * @return one future per entity, completed when its add returns
+     */
+    private List<Future<?>> addConcurrently( ExecutorService executor, List<Subreddit> entities ) {
+        CountDownLatch start = new CountDownLatch( 1 );
+        List<Future<?>> futures = new ArrayList<>();
+        for( Subreddit entity: entities ) {
+            futures.add( executor.submit( () -> {
+                start.await();
+                subreddit.add( entity );
+                return null;
+            } ) );
+        }
+        start.countDown();
+        return futures;
+    }
+
+    @Test
+    final void testGroupedAdd() throws Exception {
+        GroupCommitter.enable( "Subreddit", 500, TimeUnit.MILLISECONDS, 10 );
+        GroupCommitter<?> committer = GroupCommitter.getFor( "Subreddit" );
+        List<Subreddit> entities = new ArrayList<>();
+        for( int i = 0; i < 5; i++ ) {
+            entities.add( create( i ) );
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( entities.size() );
+        try {
+            for( Future<?> future: addConcurrently( executor, entities ) ) {
+                future.get( 10, TimeUnit.SECONDS );
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals( 5, committer.getWriteCount() );
+        //all adds fall in the window of the first one
+        assertTrue( committer.getGroupCount() < 5 );
+        assertEquals( 0, committer.getFallbackCount() );
+        for( Subreddit entity: entities ) {
+            assertNotNull( entity.getId() );
+            assertEquals( entity.getId(), subreddit.getSubredditWithName( entity.getName() ).getId() );
+        }
+    }
+
+    @Test
+    final void testFailedGroupFallsBackToOneByOne() throws Exception {
+        Subreddit existing = create( 0 );
+        subreddit.add( existing );
+        GroupCommitter.enable( "Subreddit", 500, TimeUnit.MILLISECONDS, 10 );
+        GroupCommitter<?> committer = GroupCommitter.getFor( "Subreddit" );
+        //same name as existing, fails the whole group
+        Subreddit duplicate = create( 0 );
+        Subreddit fresh = create( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try {
+            List<Future<?>> futures = addConcurrently( executor, Arrays.asList( duplicate, fresh ) );
+            ExecutionException ex = assertThrows( ExecutionException.class, () -> futures.get( 0 ).get( 10, TimeUnit.SECONDS ) );
+            assertTrue( ex.getCause() instanceof RuntimeException );
+            futures.get( 1 ).get( 10, TimeUnit.SECONDS );
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals( 1, committer.getGroupCount() );
+        assertEquals( 1, committer.getFallbackCount() );
+        //only the good write is committed, with an id of its own commit
+        assertNotNull( fresh.getId() );
+        assertEquals( fresh.getId(), subreddit.getSubredditWithName( fresh.getName() ).getId() );
+        assertEquals( existing.getId(), subreddit.getSubredditWithName( existing.getName() ).getId() );
+    }
+
+    @Test
+    final void testCloseDrainsQueuedWrites() throws Exception {
+        GroupCommitter.enable( "Subreddit", 1, TimeUnit.SECONDS, 10 );
+        @SuppressWarnings( "unchecked" )
+        GroupCommitter<Subreddit> committer = (GroupCommitter<Subreddit>)GroupCommitter.getFor( "Subreddit" );
+        List<Subreddit> entities = Arrays.asList( create( 0 ), create( 1 ), create( 2 ) );
+        ExecutorService executor = Executors.newFixedThreadPool( entities.size() );
+        try {
+            List<Future<?>> futures = addConcurrently( executor, entities );
+            //writes are waiting for the window to end
+            Thread.sleep( 200 );
+            GroupCommitter.disable( "Subreddit" );
+            for( Future<?> future: futures ) {
+                future.get( 10, TimeUnit.SECONDS );
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals( 3, committer.getWriteCount() );
+        for( Subreddit entity: entities ) {
+            assertEquals( entity.getId(), subreddit.getSubredditWithName( entity.getName() ).getId() );
+        }
+        //a closed committer takes no more writes, the logic commits them on its own again
+        assertThrows( IllegalStateException.class, () -> committer.add( create( 3 ) ) );
+        Subreddit after = create( 3 );
+        subreddit.add( after );
+        assertEquals( 3, committer.getWriteCount() );
+        assertNotNull( after.getId() );
+    }
+
+    @Test
+    final void testAddInTransactionBypassesCommitter() {
+        GroupCommitter.enable( "Subreddit", 500, TimeUnit.MILLISECONDS, 10 );
+        GroupCommitter<?> committer = GroupCommitter.getFor( "Subreddit" );
+        Subreddit entity = create( 0 );
+        EntityManagerContext.inTransaction( () -> subreddit.add( entity ) );
+        assertEquals( 0, committer.getWriteCount() );
+        assertEquals( entity.getId(), subreddit.getSubredditWithName( entity.getName() ).getId() );
+    }
+}
@@ -159,6 +159,55 @@ class SubredditLogicTest {
         subreddit.delete( returnedSubreddit );
     }
 
+    @Test
+    final void testAddIfAbsentDuplicateName() {
+        int originalSize = subreddit.getAll().size();
+        Subreddit duplicate = new Subreddit();
+        duplicate.setName( expectedEntity.getName() );
+        duplicate.setUrl( "http://localhost/junit/duplicate" );
+        duplicate.setSubscribers( 20 );
+
+        //the driver counts an unchanged duplicate as a found row, it must still be reported as not added
+        assertFalse( subreddit.addIfAbsent( duplicate ) );
+        //existing row is kept and its id is given to the duplicate
+        assertEquals( expectedEntity.getId(), duplicate.getId() );
+        assertEquals( originalSize, subreddit.getAll().size() );
+        assertSubredditEquals( expectedEntity, subreddit.getWithId( expectedEntity.getId() ) );
+
+        //name column is case insensitive, so is the check
+        Subreddit otherCase = new Subreddit();
+        otherCase.setName( expectedEntity.getName().toUpperCase() );
+        otherCase.setUrl( "http://localhost/junit/duplicate" );
+        otherCase.setSubscribers( 20 );
+        assertFalse( subreddit.addIfAbsent( otherCase ) );
+        assertEquals( originalSize, subreddit.getAll().size() );
+    }
+
+    @Test
+    final void testAddAllIfAbsentCountsOnlyNewRows() {
+        Subreddit duplicate = new Subreddit();
+        duplicate.setName( expectedEntity.getName() );
+        duplicate.setUrl( "http://localhost/junit/duplicate" );
+        duplicate.setSubscribers( 20 );
+        Subreddit fresh = new Subreddit();
+        fresh.setName( "Junit 5 Test If Absent" );
+        fresh.setUrl( "http://localhost/junit/absent" );
+        fresh.setSubscribers( 30 );
+
+        assertEquals( 1, subreddit.addAllIfAbsent( Arrays.asList( duplicate, fresh ) ) );
+        try {
+            assertNotNull( fresh.getId() );
+            assertEquals( fresh.getId(), subreddit.getSubredditWithName( fresh.getName() ).getId() );
+            //second time both exist
+            assertFalse( subreddit.addIfAbsent( fresh ) );
+        } finally {
+            Subreddit added = subreddit.getSubredditWithName( fresh.getName() );
+            if( added != null ){
+                subreddit.delete( added );
+            }
+        }
+    }
+
     @Test
     final void testCreateEntity() {
         Map<String, String[]> sampleMap = new HashMap<>();
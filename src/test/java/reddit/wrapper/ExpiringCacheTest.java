@@ -0,0 +1,141 @@
+package reddit.wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class ExpiringCacheTest {
+
+    @Test
+    final void testHitAndMiss() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>( 10, 1, TimeUnit.HOURS );
+        assertEquals( "A", cache.get( "a", key -> key.toUpperCase() ) );
+        assertEquals( "A", cache.get( "a", key -> "other" ) );
+        assertEquals( 1, cache.getMissCount() );
+        assertEquals( 1, cache.getHitCount() );
+        assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    final void testEntryExpires() throws InterruptedException {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>( 10, 50, TimeUnit.MILLISECONDS );
+        cache.put( "a", 1 );
+        assertEquals( 1, cache.get( "a", key -> 2 ) );
+        TimeUnit.MILLISECONDS.sleep( 80 );
+        assertEquals( 2, cache.get( "a", key -> 2 ) );
+        assertEquals( 1, cache.getMissCount() );
+    }
+
+    @Test
+    final void testLeastRecentlyUsedIsDropped() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>( 2, 1, TimeUnit.HOURS );
+        cache.put( "a", 1 );
+        cache.put( "b", 2 );
+        //a is now more recently used than b
+        cache.get( "a", key -> -1 );
+        cache.put( "c", 3 );
+        assertEquals( 2, cache.size() );
+        assertEquals( 1, cache.get( "a", key -> -1 ) );
+        assertEquals( 3, cache.get( "c", key -> -1 ) );
+        assertEquals( -1, cache.get( "b", key -> -1 ) );
+    }
+
+    @Test
+    final void testInvalidateAndClear() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>( 10, 1, TimeUnit.HOURS );
+        cache.put( "a", 1 );
+        cache.put( "b", 2 );
+        cache.invalidate( "a" );
+        assertEquals( 5, cache.get( "a", key -> 5 ) );
+        cache.clear();
+        assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    final void testConfigureInPlace() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>( 10, 1, TimeUnit.HOURS );
+        cache.put( "a", 1 );
+        cache.configure( 1, 1, TimeUnit.HOURS );
+        //emptied, and the new size holds for the same instance
+        assertEquals( 0, cache.size() );
+        cache.put( "b", 2 );
+        cache.put( "c", 3 );
+        assertEquals( 1, cache.size() );
+        assertEquals( 3, cache.get( "c", key -> -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> cache.configure( 0, 1, TimeUnit.HOURS ) );
+    }
+
+    @Test
+    final void testConcurrentMissesLoadOnce() throws Exception {
+        ExpiringCache<String, String> cache = new ExpiringCache<>( 10, 1, TimeUnit.HOURS );
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+        ExecutorService pool = Executors.newFixedThreadPool( 8 );
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add( pool.submit( () -> cache.get( "user", key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await( release );
+                return "loaded";
+            } ) ) );
+            assertTrue( loading.await( 5, TimeUnit.SECONDS ) );
+            for( int i = 0; i < 7; i++ ) {
+                results.add( pool.submit( () -> cache.get( "user", key -> {
+                    loads.incrementAndGet();
+                    return "again";
+                } ) ) );
+            }
+            //give the others time to find the load in flight before it finishes
+            TimeUnit.MILLISECONDS.sleep( 100 );
+            release.countDown();
+            for( Future<String> result: results ) {
+                assertEquals( "loaded", result.get( 5, TimeUnit.SECONDS ) );
+            }
+            assertEquals( 1, loads.get() );
+            assertEquals( 1, cache.getMissCount() );
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    final void testFailedLoadIsNotCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>( 10, 1, TimeUnit.HOURS );
+        IllegalStateException thrown = assertThrows( IllegalStateException.class, () -> cache.get( "a", key -> {
+            throw new IllegalStateException( "reddit is down" );
+        } ) );
+        assertEquals( "reddit is down", thrown.getMessage() );
+        assertEquals( 0, cache.size() );
+        assertEquals( "ok", cache.get( "a", key -> "ok" ) );
+    }
+
+    @Test
+    final void testNullArguments() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>( 10, 1, TimeUnit.HOURS );
+        assertThrows( NullPointerException.class, () -> cache.get( null, key -> "a" ) );
+        assertThrows( NullPointerException.class, () -> cache.get( "a", key -> null ) );
+        assertThrows( IllegalArgumentException.class, () -> new ExpiringCache<String, String>( 0, 1, TimeUnit.HOURS ) );
+    }
+
+    private static void await( CountDownLatch latch ) {
+        try {
+            latch.await( 5, TimeUnit.SECONDS );
+        } catch( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
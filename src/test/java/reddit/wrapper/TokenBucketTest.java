@@ -0,0 +1,86 @@
+package reddit.wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Shariar
+ */
+class TokenBucketTest {
+
+    @Test
+    final void testStartsFull() {
+        TokenBucket bucket = new TokenBucket( 5, 1, TimeUnit.HOURS );
+        assertEquals( 5, bucket.getCapacity() );
+        for( int i = 0; i < 5; i++ ) {
+            assertTrue( bucket.tryAcquire() );
+        }
+        //refill of one token an hour cannot happen during the test
+        assertFalse( bucket.tryAcquire() );
+        assertEquals( 0, bucket.getWaitCount() );
+    }
+
+    @Test
+    final void testAcquireWithinCapacityDoesNotWait() {
+        TokenBucket bucket = new TokenBucket( 3, 1, TimeUnit.HOURS );
+        long start = System.nanoTime();
+        for( int i = 0; i < 3; i++ ) {
+            bucket.acquire();
+        }
+        assertTrue( System.nanoTime() - start < TimeUnit.SECONDS.toNanos( 1 ) );
+        assertEquals( 0, bucket.getWaitCount() );
+    }
+
+    @Test
+    final void testAcquireWaitsForRefill() {
+        //one token every 50ms
+        TokenBucket bucket = new TokenBucket( 1, 20, TimeUnit.SECONDS );
+        bucket.acquire();
+        long start = System.nanoTime();
+        bucket.acquire();
+        bucket.acquire();
+        long waited = System.nanoTime() - start;
+        assertTrue( waited >= TimeUnit.MILLISECONDS.toNanos( 90 ), "waited " + waited + "ns" );
+        assertEquals( 2, bucket.getWaitCount() );
+    }
+
+    @Test
+    final void testRateHoldsAcrossThreads() throws InterruptedException {
+        //capacity 1 and 100 per second, 4 threads taking 5 tokens each need at least 190ms
+        TokenBucket bucket = new TokenBucket( 1, 100, TimeUnit.SECONDS );
+        List<Thread> threads = new ArrayList<>();
+        for( int i = 0; i < 4; i++ ) {
+            threads.add( new Thread( () -> {
+                for( int j = 0; j < 5; j++ ) {
+                    bucket.acquire();
+                }
+            } ) );
+        }
+        long start = System.nanoTime();
+        threads.forEach( Thread::start );
+        for( Thread t: threads ) {
+            t.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue( elapsed >= TimeUnit.MILLISECONDS.toNanos( 180 ), "took " + elapsed + "ns" );
+        assertTrue( bucket.getAvailableTokens() <= 1 );
+    }
+
+    @Test
+    final void testRefillIsCapped() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket( 2, 1000, TimeUnit.SECONDS );
+        TimeUnit.MILLISECONDS.sleep( 20 );
+        assertEquals( 2, bucket.getAvailableTokens(), 0.0 );
+    }
+
+    @Test
+    final void testInvalidArguments() {
+        assertThrows( IllegalArgumentException.class, () -> new TokenBucket( 0, 1, TimeUnit.SECONDS ) );
+        assertThrows( IllegalArgumentException.class, () -> new TokenBucket( 1, 0, TimeUnit.SECONDS ) );
+    }
+}